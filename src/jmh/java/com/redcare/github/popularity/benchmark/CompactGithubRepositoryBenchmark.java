@@ -0,0 +1,83 @@
+package com.redcare.github.popularity.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redcare.github.popularity.client.GithubSearchResponse;
+import com.redcare.github.popularity.config.JacksonConfig;
+import com.redcare.github.popularity.model.CompactGithubRepository;
+import com.redcare.github.popularity.model.GithubRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what the compact form costs when a cached page of repositories is written and served. Run the main method
+ * to print the retained heap of 100k decoded repositories in both forms:
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-Djol.magicFieldOffset=true -classpath %classpath com.redcare.github.popularity.benchmark.CompactGithubRepositoryBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CompactGithubRepositoryBenchmark {
+    private static final int FOOTPRINT_REPOSITORIES = 100_000;
+
+    private List<GithubRepository> page;
+    private List<CompactGithubRepository> compactPage;
+
+    @Setup
+    public void setUp() throws IOException {
+        page = decodeRepositories(new JacksonConfig().objectMapper(), 1);
+        compactPage = CompactGithubRepository.compact(page);
+    }
+
+    @Benchmark
+    public List<CompactGithubRepository> compact() {
+        return CompactGithubRepository.compact(page);
+    }
+
+    @Benchmark
+    public List<GithubRepository> expand() {
+        return CompactGithubRepository.expand(compactPage);
+    }
+
+    public static void main(String[] args) throws IOException {
+        var repositories = decodeRepositories(new JacksonConfig().objectMapper(),
+                FOOTPRINT_REPOSITORIES / 100);
+        var compactRepositories = CompactGithubRepository.compact(repositories);
+        var full = GraphLayout.parseInstance(repositories);
+        var compact = GraphLayout.parseInstance(compactRepositories);
+        System.out.printf("%d repositories: %,d bytes as GithubRepository, %,d bytes as CompactGithubRepository%n",
+                repositories.size(), full.totalSize(), compact.totalSize());
+        System.out.println(full.toFootprint());
+        System.out.println(compact.toFootprint());
+    }
+
+    /**
+     * Decodes the fixture page the given number of times, so the repositories hold their own strings and instants
+     * like repositories decoded from distinct GitHub responses.
+     */
+    private static List<GithubRepository> decodeRepositories(ObjectMapper objectMapper, int pages) throws IOException {
+        var fixture = GithubSearchResponseBenchmark.readFixture();
+        var repositories = new ArrayList<GithubRepository>();
+        for (var i = 0; i < pages; i++) {
+            repositories.addAll(objectMapper.readValue(fixture, GithubSearchResponse.class).repositories());
+        }
+        return repositories;
+    }
+}
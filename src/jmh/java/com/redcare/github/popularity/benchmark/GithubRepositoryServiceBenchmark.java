@@ -0,0 +1,97 @@
+package com.redcare.github.popularity.benchmark;
+
+import com.redcare.github.popularity.client.GithubClient;
+import com.redcare.github.popularity.client.GithubPageConsumer;
+import com.redcare.github.popularity.client.GithubSearchResponse;
+import com.redcare.github.popularity.config.JacksonConfig;
+import com.redcare.github.popularity.domain.PopularityScorerRegistry;
+import com.redcare.github.popularity.domain.ScoringProperties;
+import com.redcare.github.popularity.domain.SimplePopularityScorer;
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.GithubSearchParams;
+import com.redcare.github.popularity.model.ScoredGithubRepository;
+import com.redcare.github.popularity.services.GithubRepositoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the scoring pipeline of the service against a stub client that serves decoded fixture pages,
+ * so only scoring, sorting and limiting are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GithubRepositoryServiceBenchmark {
+
+    @Param({"1", "10"})
+    private int pages;
+
+    private GithubRepositoryService service;
+    private GithubSearchParams unsortedParams;
+    private GithubSearchParams topScoredParams;
+
+    @Setup
+    public void setUp() throws IOException {
+        var page = new JacksonConfig().objectMapper()
+                .readValue(GithubSearchResponseBenchmark.readFixture(), GithubSearchResponse.class)
+                .repositories();
+        var servedPages = new ArrayList<List<GithubRepository>>();
+        for (var i = 0; i < pages; i++) {
+            servedPages.add(page);
+        }
+        service = new GithubRepositoryService(new StubGithubClient(servedPages), searchParams -> Flux.empty(),
+                new PopularityScorerRegistry(new SimplePopularityScorer(), new ScoringProperties(null, null)),
+                Clock.systemUTC(), new SimpleMeterRegistry());
+        unsortedParams = new GithubSearchParams("2024-01-01", "java", pages, 100);
+        topScoredParams = new GithubSearchParams("2024-01-01", "java", pages, 100, GithubSearchParams.SORT_BY_SCORE, 10, null);
+    }
+
+    @Benchmark
+    public List<ScoredGithubRepository> unsorted() {
+        return service.getRepositoriesWithPopularityScore(unsortedParams);
+    }
+
+    @Benchmark
+    public List<ScoredGithubRepository> topScored() {
+        return service.getRepositoriesWithPopularityScore(topScoredParams);
+    }
+
+    private record StubGithubClient(List<List<GithubRepository>> pages) implements GithubClient {
+
+        @Override
+        public List<GithubRepository> getRepositories(GithubSearchParams searchParams) {
+            var repositories = new ArrayList<GithubRepository>();
+            pages.forEach(repositories::addAll);
+            return repositories;
+        }
+
+        @Override
+        public void streamRepositories(GithubSearchParams searchParams, GithubPageConsumer pageConsumer) {
+            for (var page : pages) {
+                if (!pageConsumer.accept(page)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.redcare.github.popularity.benchmark;
+
+import com.redcare.github.popularity.model.GithubSearchParams;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates search parameters the way a request binds them, including date parsing and clamping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GithubSearchParamsBenchmark {
+
+    // fields instead of constants, so the JIT cannot fold the validation away
+    private String earliestCreationDate = "2024-01-01";
+    private String language = "java";
+    private Integer maxPages = 50;
+    private Integer pageSize = 100;
+    private String sort = "Score";
+    private Integer limit = 5000;
+
+    @Benchmark
+    public GithubSearchParams withoutDate() {
+        return new GithubSearchParams(null, language, maxPages, pageSize);
+    }
+
+    @Benchmark
+    public GithubSearchParams withDate() {
+        return new GithubSearchParams(earliestCreationDate, language, maxPages, pageSize);
+    }
+
+    @Benchmark
+    public GithubSearchParams sortedAndLimited() {
+        return new GithubSearchParams(earliestCreationDate, language, maxPages, pageSize, sort, limit, null);
+    }
+}
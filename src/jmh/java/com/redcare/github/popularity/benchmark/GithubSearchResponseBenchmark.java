@@ -0,0 +1,54 @@
+package com.redcare.github.popularity.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redcare.github.popularity.client.GithubSearchResponse;
+import com.redcare.github.popularity.config.JacksonConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes a recorded GitHub search page of 100 repositories with the application's object mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GithubSearchResponseBenchmark {
+
+    static final String FIXTURE = "/fixtures/github-search-page-100.json";
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+    private byte[] page;
+
+    @Setup
+    public void setUp() throws IOException {
+        page = readFixture();
+    }
+
+    @Benchmark
+    public GithubSearchResponse deserialize() throws IOException {
+        return objectMapper.readValue(page, GithubSearchResponse.class);
+    }
+
+    static byte[] readFixture() throws IOException {
+        try (var fixture = GithubSearchResponseBenchmark.class.getResourceAsStream(FIXTURE)) {
+            if (fixture == null) {
+                throw new IllegalStateException("Missing fixture " + FIXTURE);
+            }
+            return fixture.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.redcare.github.popularity.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redcare.github.popularity.client.GithubSearchResponse;
+import com.redcare.github.popularity.config.GithubRestClientConfig;
+import com.redcare.github.popularity.config.JacksonConfig;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.RestClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Crawls 30 recorded search pages from a local stub server, 4 pages at a time like the page fetching of the client.
+ * Compares the RestClient on its default request factory with the tuned transport of {@link GithubRestClientConfig}.
+ * The stub adds a fixed latency per response and serves it at a limited bandwidth, so the benchmark shows where
+ * transferring fewer bytes outweighs decompressing them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GithubTransportBenchmark {
+    private static final int PAGES = 30;
+    private static final int CONCURRENCY = 4;
+    private static final long LATENCY_MILLIS = 20;
+
+    @Param({"default", "tuned"})
+    private String transport;
+    @Param({"10", "100"})
+    private long megabytesPerSecond;
+
+    private HttpServer server;
+    private ExecutorService fetchExecutor;
+    private RestClient restClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        var page = GithubSearchResponseBenchmark.readFixture();
+        var compressedPage = gzip(page);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.createContext("/search/repositories", exchange -> {
+            var gzip = "gzip".equals(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            var body = gzip ? compressedPage : page;
+            if (gzip) {
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            sleep(LATENCY_MILLIS + body.length * 1000L / (megabytesPerSecond * 1024 * 1024));
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        var baseUrl = "http://localhost:" + server.getAddress().getPort();
+        var objectMapper = new JacksonConfig().objectMapper();
+        restClient = "tuned".equals(transport)
+                ? new GithubRestClientConfig(baseUrl, HttpClient.Version.HTTP_2, Duration.ofSeconds(5),
+                Duration.ofSeconds(30), true).restClient(objectMapper)
+                : defaultRestClient(baseUrl, objectMapper);
+        fetchExecutor = Executors.newFixedThreadPool(CONCURRENCY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fetchExecutor.shutdownNow();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public int crawl() throws ExecutionException, InterruptedException {
+        var futures = new ArrayList<Future<GithubSearchResponse>>(PAGES);
+        for (var page = 1; page <= PAGES; page++) {
+            var pageNumber = page;
+            futures.add(fetchExecutor.submit(() -> restClient.get()
+                    .uri(uriBuilder -> uriBuilder.path("/search/repositories").queryParam("page", pageNumber).build())
+                    .retrieve()
+                    .body(GithubSearchResponse.class)));
+        }
+        var repositories = 0;
+        for (var future : futures) {
+            repositories += future.get().repositories().size();
+        }
+        return repositories;
+    }
+
+    private static RestClient defaultRestClient(String baseUrl, ObjectMapper objectMapper) {
+        return RestClient.builder()
+                .baseUrl(baseUrl)
+                .messageConverters(converters -> converters.replaceAll(converter ->
+                        converter instanceof MappingJackson2HttpMessageConverter
+                                ? new MappingJackson2HttpMessageConverter(objectMapper)
+                                : converter))
+                .build();
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        var compressed = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
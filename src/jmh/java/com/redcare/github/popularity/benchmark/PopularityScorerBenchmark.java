@@ -0,0 +1,72 @@
+package com.redcare.github.popularity.benchmark;
+
+import com.redcare.github.popularity.domain.PopularityScorer;
+import com.redcare.github.popularity.domain.ScoringProfile;
+import com.redcare.github.popularity.domain.SimplePopularityScorer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores a page of repositories one by one and as a columnar batch, with the hand-written scorer and with the
+ * same formula compiled from a scoring profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PopularityScorerBenchmark {
+
+    @Param({"100", "10000"})
+    private int repositories;
+
+    private final SimplePopularityScorer scorer = new SimplePopularityScorer();
+    private final PopularityScorer compiledScorer = new ScoringProfile(null, null, null, null, null, null, null, null,
+            null, null, null, null).compile();
+    private int[] starCounts;
+    private int[] forkCounts;
+    private int[] daysSinceUpdate;
+    private double[] scores;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        starCounts = random.ints(repositories, 0, 50_000).toArray();
+        forkCounts = random.ints(repositories, 0, 5_000).toArray();
+        daysSinceUpdate = random.ints(repositories, 0, 1_000).toArray();
+        scores = new double[repositories];
+    }
+
+    @Benchmark
+    public void calculateScore(Blackhole blackhole) {
+        for (var i = 0; i < repositories; i++) {
+            blackhole.consume(scorer.calculateScore(starCounts[i], forkCounts[i], daysSinceUpdate[i]));
+        }
+    }
+
+    @Benchmark
+    public double[] calculateScores() {
+        scorer.calculateScores(starCounts, forkCounts, daysSinceUpdate, scores);
+        return scores;
+    }
+
+    @Benchmark
+    public double[] calculateScoresCompiled() {
+        compiledScorer.calculateScores(starCounts, forkCounts, daysSinceUpdate, scores);
+        return scores;
+    }
+}
@@ -0,0 +1,95 @@
+package com.redcare.github.popularity.benchmark;
+
+import com.redcare.github.popularity.domain.ScoringDays;
+import com.redcare.github.popularity.domain.SimplePopularityScorer;
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.stats.RepositoryStatsSnapshot;
+import com.redcare.github.popularity.stats.RepositoryStatsStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rescores every repository of the stats store, and rebuilds the snapshot after a refreshed page was recorded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RepositoryStatsStoreBenchmark {
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+    private static final String[] LANGUAGES = {"Java", "Kotlin", "Go", "Rust", "Python"};
+
+    @Param({"100000", "300000"})
+    private int repositories;
+
+    private final SimplePopularityScorer scorer = new SimplePopularityScorer();
+    private RepositoryStatsStore store;
+    private RepositoryStatsSnapshot snapshot;
+    // two versions of the same page, so every recorded page changes stats and invalidates the snapshot
+    private List<GithubRepository> refreshedPage;
+    private List<GithubRepository> otherRefreshedPage;
+    private boolean other;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        store = new RepositoryStatsStore(repositories);
+        var page = new ArrayList<GithubRepository>(100);
+        for (var id = 1; id <= repositories; id++) {
+            page.add(new GithubRepository(id, "owner/repo-" + id, null, NOW.minus(500, ChronoUnit.DAYS),
+                    NOW.minus(random.nextInt(730), ChronoUnit.DAYS), random.nextInt(20_000), random.nextInt(2_000),
+                    LANGUAGES[random.nextInt(LANGUAGES.length)]));
+            if (page.size() == 100) {
+                store.update(page);
+                page.clear();
+            }
+        }
+        store.update(page);
+        refreshedPage = refreshedPage(random);
+        otherRefreshedPage = refreshedPage.stream()
+                .map(repository -> new GithubRepository(repository.id(), repository.name(), null, repository.createdAt(),
+                        repository.pushedAt(), repository.starsCount() + 1, repository.forksCount(), repository.language()))
+                .toList();
+        snapshot = store.snapshot();
+    }
+
+    @Benchmark
+    public double[] rescoreSnapshot() {
+        return snapshot.score(scorer, ScoringDays.epochDay(NOW));
+    }
+
+    @Benchmark
+    public RepositoryStatsSnapshot recordPageAndSnapshot() {
+        other = !other;
+        store.update(other ? otherRefreshedPage : refreshedPage);
+        return store.snapshot();
+    }
+
+    private List<GithubRepository> refreshedPage(Random random) {
+        var sample = new ArrayList<GithubRepository>(100);
+        for (var i = 0; i < 100; i++) {
+            var id = 1 + random.nextInt(repositories);
+            sample.add(new GithubRepository(id, "owner/repo-" + id, null, NOW.minus(500, ChronoUnit.DAYS), NOW,
+                    random.nextInt(20_000), random.nextInt(2_000), "Java"));
+        }
+        return sample;
+    }
+}
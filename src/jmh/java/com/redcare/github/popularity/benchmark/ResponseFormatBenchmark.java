@@ -0,0 +1,141 @@
+package com.redcare.github.popularity.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redcare.github.popularity.client.GithubSearchResponse;
+import com.redcare.github.popularity.config.JacksonConfig;
+import com.redcare.github.popularity.config.ScoredRepositoryProtobufHttpMessageConverter;
+import com.redcare.github.popularity.model.ScoredGithubRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a result of 3000 scored repositories in each response format, optionally gzipped like the server's response
+ * compression does. Run the main method to print the payload size of each format:
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-classpath %classpath com.redcare.github.popularity.benchmark.ResponseFormatBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ResponseFormatBenchmark {
+    private static final int RESULT_SIZE = 3000;
+    private static final Type RESULT_TYPE = new ParameterizedTypeReference<List<ScoredGithubRepository>>() {
+    }.getType();
+
+    @Param({"json", "smile", "cbor", "protobuf"})
+    private String format;
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 20);
+    private Writer writer;
+    private List<ScoredGithubRepository> result;
+
+    @Setup
+    public void setUp() throws IOException {
+        result = scoredResult();
+        writer = writer(format);
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        buffer.reset();
+        return write(writer, result, buffer, gzip);
+    }
+
+    public static void main(String[] args) throws IOException {
+        var result = scoredResult();
+        for (var format : List.of("json", "smile", "cbor", "protobuf")) {
+            var writer = writer(format);
+            var plain = write(writer, result, new ByteArrayOutputStream(), false);
+            var gzipped = write(writer, result, new ByteArrayOutputStream(), true);
+            System.out.printf("%-8s %,10d bytes, %,10d bytes gzipped%n", format, plain, gzipped);
+        }
+    }
+
+    private static int write(Writer writer, List<ScoredGithubRepository> result, ByteArrayOutputStream buffer,
+                             boolean gzip) throws IOException {
+        if (gzip) {
+            try (var output = new GZIPOutputStream(buffer)) {
+                writer.write(result, output);
+            }
+        } else {
+            writer.write(result, buffer);
+        }
+        return buffer.size();
+    }
+
+    private static Writer writer(String format) {
+        return switch (format) {
+            case "json" -> jacksonWriter(new JacksonConfig().objectMapper());
+            case "smile" -> jacksonWriter(JacksonConfig.smileObjectMapper());
+            case "cbor" -> jacksonWriter(JacksonConfig.cborObjectMapper());
+            case "protobuf" -> protobufWriter(new ScoredRepositoryProtobufHttpMessageConverter());
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+    }
+
+    private static Writer jacksonWriter(ObjectMapper objectMapper) {
+        var objectWriter = objectMapper.writerFor(objectMapper.constructType(RESULT_TYPE));
+        return (result, output) -> objectWriter.writeValue(output, result);
+    }
+
+    private static Writer protobufWriter(ScoredRepositoryProtobufHttpMessageConverter converter) {
+        return (result, output) -> converter.write(result, RESULT_TYPE,
+                ScoredRepositoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF, new HttpOutputMessage() {
+                    @Override
+                    public OutputStream getBody() {
+                        return output;
+                    }
+
+                    @Override
+                    public HttpHeaders getHeaders() {
+                        return new HttpHeaders();
+                    }
+                });
+    }
+
+    /**
+     * Scores the repositories of the fixture page until the result holds 3000 of them.
+     */
+    private static List<ScoredGithubRepository> scoredResult() throws IOException {
+        var page = new JacksonConfig().objectMapper()
+                .readValue(GithubSearchResponseBenchmark.readFixture(), GithubSearchResponse.class)
+                .repositories();
+        var result = new ArrayList<ScoredGithubRepository>(RESULT_SIZE);
+        for (var i = 0; result.size() < RESULT_SIZE; i++) {
+            var repository = page.get(i % page.size());
+            result.add(new ScoredGithubRepository(repository, repository.starsCount() * 0.4 + i * 0.01));
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(List<ScoredGithubRepository> result, OutputStream output) throws IOException;
+    }
+}
@@ -0,0 +1,85 @@
+package com.redcare.github.popularity.client;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.redcare.github.popularity.model.CompactGithubRepository;
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.GithubSearchParams;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Caches search results of a delegate {@link GithubClient} by their normalized {@link GithubSearchKey}.
+ * Entries expire after the time-to-live. Entries older than the refresh interval are still served, but
+ * trigger a reload in the background, so hot queries never block a caller once they are cached.
+ * The cache is bounded by the total number of cached repositories and evicts entries by frequency and recency.
+ * Repositories are cached in their {@link CompactGithubRepository} form and expanded on every hit.
+ */
+public class CachingGithubClient implements GithubClient {
+
+    private final GithubClient delegate;
+    private final LoadingCache<GithubSearchKey, List<CompactGithubRepository>> cache;
+
+    public CachingGithubClient(GithubClient delegate, Duration timeToLive, Duration refreshAfter, long maximumRepositories) {
+        this(delegate, timeToLive, refreshAfter, maximumRepositories, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    CachingGithubClient(GithubClient delegate, Duration timeToLive, Duration refreshAfter, long maximumRepositories,
+                        Ticker ticker, Executor refreshExecutor) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLive)
+                .refreshAfterWrite(refreshAfter)
+                // weigh entries by their repository count, the empty result still occupies an entry
+                .maximumWeight(maximumRepositories)
+                .<GithubSearchKey, List<CompactGithubRepository>>weigher((key, repositories) -> repositories.size() + 1)
+                .ticker(ticker)
+                .executor(refreshExecutor)
+                .build(key -> CompactGithubRepository.compact(delegate.getRepositories(key.toSearchParams())));
+    }
+
+    /**
+     * Retrieves GitHub repositories from the cache, loading them from the delegate on a miss.
+     *
+     * @param searchParams The search parameters containing criteria such as creation date range,
+     *                     programming language and pagination options
+     * @return A list of GitHub repositories matching the specified criteria
+     */
+    @Override
+    public List<GithubRepository> getRepositories(GithubSearchParams searchParams) {
+        return CompactGithubRepository.expand(cache.get(GithubSearchKey.of(searchParams)));
+    }
+
+    /**
+     * Hands a cached result over as a single page. On a miss the pages of the delegate are passed through
+     * as they arrive and the complete result is cached afterwards; a search the consumer stopped early is not cached.
+     *
+     * @param searchParams The search parameters containing criteria such as creation date range,
+     *                     programming language and pagination options
+     * @param pageConsumer Receives the repositories of each page in page order and returns whether to continue
+     */
+    @Override
+    public void streamRepositories(GithubSearchParams searchParams, GithubPageConsumer pageConsumer) {
+        var key = GithubSearchKey.of(searchParams);
+        var cachedRepositories = cache.getIfPresent(key);
+        if (cachedRepositories != null) {
+            pageConsumer.accept(CompactGithubRepository.expand(cachedRepositories));
+            return;
+        }
+        List<CompactGithubRepository> repositories = new ArrayList<>();
+        var stopped = new boolean[1];
+        delegate.streamRepositories(searchParams, page -> {
+            repositories.addAll(CompactGithubRepository.compact(page));
+            stopped[0] = !pageConsumer.accept(page);
+            return !stopped[0];
+        });
+        if (!stopped[0]) {
+            cache.put(key, List.copyOf(repositories));
+        }
+    }
+}
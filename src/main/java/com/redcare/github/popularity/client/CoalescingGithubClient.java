@@ -0,0 +1,131 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.GithubSearchParams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Coalesces concurrent identical searches of a delegate {@link GithubClient}. The first caller of a
+ * {@link GithubSearchKey} performs the search, concurrent callers with an equal key wait for and share its result
+ * or its error. Streamed and listed searches share one another's in-flight searches as well. In-flight searches are
+ * tracked in a concurrent map, so unrelated keys never contend on a lock.
+ */
+public class CoalescingGithubClient implements GithubClient {
+
+    private final GithubClient delegate;
+    private final ConcurrentMap<GithubSearchKey, CompletableFuture<List<GithubRepository>>> inFlightSearches =
+            new ConcurrentHashMap<>();
+
+    public CoalescingGithubClient(GithubClient delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Retrieves GitHub repositories from the delegate, sharing one in-flight search between identical concurrent calls.
+     *
+     * @param searchParams The search parameters containing criteria such as creation date range,
+     *                     programming language and pagination options
+     * @return A list of GitHub repositories matching the specified criteria
+     */
+    @Override
+    public List<GithubRepository> getRepositories(GithubSearchParams searchParams) {
+        var key = GithubSearchKey.of(searchParams);
+        var search = new CompletableFuture<List<GithubRepository>>();
+        var inFlightSearch = inFlightSearches.putIfAbsent(key, search);
+        if (inFlightSearch != null) {
+            try {
+                return await(inFlightSearch);
+            } catch (CancellationException e) {
+                return getRepositories(searchParams);
+            }
+        }
+        try {
+            var repositories = List.copyOf(delegate.getRepositories(searchParams));
+            search.complete(repositories);
+            return repositories;
+        } catch (RuntimeException e) {
+            search.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightSearches.remove(key, search);
+        }
+    }
+
+    /**
+     * Streams the pages of the delegate to the first caller of a search, concurrent identical callers receive its
+     * complete result as a single page. If the first caller fails to consume a page or wants no further pages, the
+     * search is abandoned, as its result would be incomplete, and each waiting caller searches again on its own.
+     *
+     * @param searchParams The search parameters containing criteria such as creation date range,
+     *                     programming language and pagination options
+     * @param pageConsumer Receives the repositories of each page in page order and returns whether to continue
+     */
+    @Override
+    public void streamRepositories(GithubSearchParams searchParams, GithubPageConsumer pageConsumer) {
+        var key = GithubSearchKey.of(searchParams);
+        var search = new CompletableFuture<List<GithubRepository>>();
+        var inFlightSearch = inFlightSearches.putIfAbsent(key, search);
+        if (inFlightSearch != null) {
+            List<GithubRepository> repositories;
+            try {
+                repositories = await(inFlightSearch);
+            } catch (CancellationException e) {
+                streamRepositories(searchParams, pageConsumer);
+                return;
+            }
+            pageConsumer.accept(repositories);
+            return;
+        }
+        List<GithubRepository> repositories = new ArrayList<>();
+        var consumerFailed = new boolean[1];
+        var consumerStopped = new boolean[1];
+        try {
+            delegate.streamRepositories(searchParams, page -> {
+                repositories.addAll(page);
+                try {
+                    consumerStopped[0] = !pageConsumer.accept(page);
+                    return !consumerStopped[0];
+                } catch (RuntimeException e) {
+                    consumerFailed[0] = true;
+                    throw e;
+                }
+            });
+            if (consumerStopped[0]) {
+                // the pages this caller did not want are missing, waiting callers must not share them
+                inFlightSearches.remove(key, search);
+                search.cancel(false);
+                return;
+            }
+            search.complete(List.copyOf(repositories));
+        } catch (RuntimeException e) {
+            if (consumerFailed[0]) {
+                // the failure belongs to this caller, not to the search; waiting callers must not find it again
+                inFlightSearches.remove(key, search);
+                search.cancel(false);
+            } else {
+                search.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            inFlightSearches.remove(key, search);
+        }
+    }
+
+    private static List<GithubRepository> await(CompletableFuture<List<GithubRepository>> search) {
+        try {
+            return search.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.redcare.github.popularity.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.redcare.github.popularity.model.CompactGithubRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Remembers the validators ({@code ETag} and {@code Last-Modified}) and the body of previously fetched search pages,
+ * so a page can be requested conditionally and rebuilt from the stored body when GitHub answers with 304. Bodies are
+ * stored with their repositories in compact form and only inflated again for a 304.
+ */
+@Component
+public class ConditionalRequestCache {
+
+    private final Cache<String, Entry> entries;
+
+    public ConditionalRequestCache(@Value("${github.conditional-cache.maximum-pages:1000}") long maximumPages) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumPages)
+                .build();
+    }
+
+    /**
+     * @param pageUri The URI of the search page
+     * @return The stored entry of the page or null if the page has not been fetched with a validator yet
+     */
+    public Entry get(String pageUri) {
+        return entries.getIfPresent(pageUri);
+    }
+
+    /**
+     * Stores the page body if the response carries a validator, otherwise it could never be revalidated.
+     *
+     * @param pageUri  The URI of the search page
+     * @param headers  The response headers containing the validators
+     * @param response The deserialized body of the page
+     */
+    public void put(String pageUri, HttpHeaders headers, GithubSearchResponse response) {
+        var eTag = headers.getETag();
+        var lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+        if (response == null || (eTag == null && lastModified == null)) {
+            return;
+        }
+        entries.put(pageUri, new Entry(eTag, lastModified, response.repoCount(), response.hasMore(),
+                CompactGithubRepository.compact(response.repositories())));
+    }
+
+    /**
+     * Adds the conditional request headers of the stored entry to an outgoing request.
+     */
+    public static void applyValidators(Entry entry, HttpHeaders headers) {
+        if (entry == null) {
+            return;
+        }
+        if (entry.eTag() != null) {
+            headers.setIfNoneMatch(entry.eTag());
+        }
+        if (entry.lastModified() != null) {
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, entry.lastModified());
+        }
+    }
+
+    public record Entry(String eTag, String lastModified, int repoCount, boolean hasMore,
+                        List<CompactGithubRepository> repositories) {
+
+        /**
+         * @return The stored page body with its repositories inflated again
+         */
+        public GithubSearchResponse response() {
+            return new GithubSearchResponse(repoCount, hasMore, CompactGithubRepository.expand(repositories));
+        }
+    }
+}
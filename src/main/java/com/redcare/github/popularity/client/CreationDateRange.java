@@ -0,0 +1,30 @@
+package com.redcare.github.popularity.client;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Inclusive range of repository creation dates, used to partition a search into slices GitHub can return completely.
+ */
+record CreationDateRange(LocalDate from, LocalDate to) {
+
+    boolean isSingleDay() {
+        return !from.isBefore(to);
+    }
+
+    /**
+     * Splits the range into two halves that together cover the range exactly.
+     */
+    List<CreationDateRange> split() {
+        var middle = from.plusDays(ChronoUnit.DAYS.between(from, to) / 2);
+        return List.of(new CreationDateRange(from, middle), new CreationDateRange(middle.plusDays(1), to));
+    }
+
+    /**
+     * @return The GitHub search qualifier matching repositories created within the range
+     */
+    String toQualifier() {
+        return "created:" + from + ".." + to;
+    }
+}
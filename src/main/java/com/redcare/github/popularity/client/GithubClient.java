@@ -16,4 +16,18 @@ public interface GithubClient {
      * @return A list of GitHub repositories matching the specified criteria
      */
     List<GithubRepository> getRepositories(GithubSearchParams searchParams);
+
+    /**
+     * Retrieves GitHub repositories like {@link #getRepositories(GithubSearchParams)}, but hands them to the consumer
+     * page by page in page order as soon as they are available. Implementations that cannot fetch page by page hand
+     * over the complete result as a single page. Once the consumer wants no further pages, no further pages are
+     * fetched, so a caller that only needs the first repositories does not pay for the whole crawl.
+     *
+     * @param searchParams The search parameters containing criteria such as creation date range,
+     *                     programming language and pagination options
+     * @param pageConsumer Receives the repositories of each page in page order and returns whether to continue
+     */
+    default void streamRepositories(GithubSearchParams searchParams, GithubPageConsumer pageConsumer) {
+        pageConsumer.accept(getRepositories(searchParams));
+    }
 }
@@ -0,0 +1,18 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.model.GithubRepository;
+
+import java.util.List;
+
+/**
+ * Receives the pages of a streamed search in page order and tells the client whether to keep fetching.
+ */
+@FunctionalInterface
+public interface GithubPageConsumer {
+
+    /**
+     * @param page The repositories of the next page
+     * @return Whether further pages are wanted; once false, no further pages are requested or handed over
+     */
+    boolean accept(List<GithubRepository> page);
+}
@@ -0,0 +1,160 @@
+package com.redcare.github.popularity.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Hedges slow GitHub page requests: a page that has not been answered within the 95th percentile of recent page
+ * latencies is requested a second time, and whichever request answers first wins while the other is cancelled.
+ * A crawl waits for its slowest page, so without hedging one stalled page out of 30 stalls the whole crawl.
+ * The percentile is taken over a sliding window of recent successful pages, hedging starts once enough have been seen.
+ * Hedged requests run on their own small pool, so they do not queue behind the pages they hedge, while a single
+ * timer thread fires the hedges and cancels the losers.
+ */
+@Component
+public class GithubPageHedging {
+    private static final int LATENCY_WINDOW = 256;
+    private static final int MIN_SAMPLES = 32;
+    // the percentile is recomputed every few samples instead of sorting the window on every request
+    private static final int RECOMPUTE_INTERVAL = 16;
+    private static final String HEDGED_REQUESTS_METRIC = "github.hedged.requests";
+    private static final Runnable NOT_HEDGED = () -> {
+    };
+
+    private final boolean enabled;
+    private final long minDelayNanos;
+    // fires the hedge timers and cancels losers, it never blocks on a request
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService hedgeExecutor;
+    private final MeterRegistry meterRegistry;
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int samples;
+    private volatile long p95Nanos = -1;
+
+    public GithubPageHedging(@Value("${github.hedging.enabled:false}") boolean enabled,
+                             @Value("${github.hedging.min-delay:50ms}") Duration minDelay,
+                             @Value("${github.hedging.concurrency:2}") int concurrency,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.minDelayNanos = minDelay.toNanos();
+        var scheduler = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("github-hedge-timer-"));
+        // most timers are cancelled before they are due, they should not pile up in the queue
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler = scheduler;
+        this.hedgeExecutor = Executors.newFixedThreadPool(Math.max(1, concurrency),
+                new CustomizableThreadFactory("github-hedge-"));
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return A hedging that sends every page request once
+     */
+    public static GithubPageHedging disabled(MeterRegistry meterRegistry) {
+        return new GithubPageHedging(false, Duration.ZERO, 1, meterRegistry);
+    }
+
+    /**
+     * Records the latency of a successful page request.
+     */
+    public synchronized void record(long latencyNanos) {
+        latencies[samples % LATENCY_WINDOW] = latencyNanos;
+        samples++;
+        if (samples >= MIN_SAMPLES && samples % RECOMPUTE_INTERVAL == 0) {
+            var window = Arrays.copyOf(latencies, Math.min(samples, LATENCY_WINDOW));
+            Arrays.sort(window);
+            p95Nanos = window[(int) Math.ceil(window.length * 0.95) - 1];
+        }
+    }
+
+    /**
+     * @return The time after which a page request is hedged, or null while hedging is disabled or has too few samples
+     */
+    public Duration delay() {
+        var p95 = p95Nanos;
+        return enabled && p95 >= 0 ? Duration.ofNanos(Math.max(minDelayNanos, p95)) : null;
+    }
+
+    /**
+     * Requests a page on the given executor and hedges it once its first request has been sent for longer than
+     * {@link #delay()}. Time spent queued for the executor or waiting for a token does not count, it is not part of
+     * the recorded latencies either. The returned future completes with the first successful response, or with the
+     * last failure if all requests failed. Cancelling it cancels all requests.
+     *
+     * @param fetch    Sends the page request, calling the given callback once the request has taken its token and
+     *                 is about to be sent
+     * @param executor Runs the first request
+     * @param mayHedge Grants the hedged request, e.g. from the crawl's retry budget
+     */
+    public <T> CompletableFuture<T> submit(Function<Runnable, T> fetch, ExecutorService executor, BooleanSupplier mayHedge) {
+        var result = new CompletableFuture<T>();
+        var pending = new AtomicInteger(1);
+        var timer = new AtomicReference<Future<?>>();
+        var hedge = new AtomicReference<Future<?>>();
+        Runnable startTimer = () -> {
+            var delay = delay();
+            if (delay != null && timer.get() == null && !result.isDone()) {
+                timer.set(scheduler.schedule(() -> {
+                    if (result.isDone() || !mayHedge.getAsBoolean()) {
+                        return;
+                    }
+                    pending.incrementAndGet();
+                    meterRegistry.counter(HEDGED_REQUESTS_METRIC).increment();
+                    hedge.set(hedgeExecutor.submit(() -> complete(result, pending, () -> fetch.apply(NOT_HEDGED))));
+                }, delay.toNanos(), TimeUnit.NANOSECONDS));
+            }
+        };
+        Future<?> primary = executor.submit(() -> complete(result, pending, () -> fetch.apply(startTimer)));
+        result.whenComplete((response, failure) -> {
+            if (result.isCancelled()) {
+                cancel(primary, timer.get(), hedge.get());
+            } else if (timer.get() != null) {
+                // the loser is cancelled, an interrupted request gives its connection and token back right away;
+                // cancelling from the timer thread keeps the winner from interrupting itself
+                scheduler.execute(() -> cancel(primary, timer.get(), hedge.get()));
+            }
+        });
+        return result;
+    }
+
+    private static void cancel(Future<?>... futures) {
+        for (var future : futures) {
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static <T> void complete(CompletableFuture<T> result, AtomicInteger pending, Supplier<T> fetch) {
+        try {
+            result.complete(fetch.get());
+        } catch (RuntimeException e) {
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        hedgeExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,137 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.model.RateLimitStatus;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Token bucket for the GitHub search requests of one access token. The bucket is refilled from the rate limit headers
+ * GitHub sends with every response, so all concurrent API calls with the token share one view of its remaining budget.
+ * Permits are only taken without waiting, the {@link GithubTokenPool} holds one limiter per token and decides how long
+ * callers wait for any of them.
+ */
+public class GithubRateLimiter {
+    private static final int SEARCH_LIMIT_WITH_TOKEN = 30;
+    private static final int SEARCH_LIMIT_WITHOUT_TOKEN = 10;
+    private static final Duration SEARCH_WINDOW = Duration.ofMinutes(1);
+
+    private final Clock clock;
+
+    private int limit;
+    private int remaining;
+    private int inFlight;
+    private long resetAtMillis;
+    private long blockedUntilMillis;
+
+    public GithubRateLimiter(String accessToken, Clock clock) {
+        this.clock = clock;
+        // until GitHub reports the actual budget, assume the documented search limits
+        this.limit = accessToken != null && !accessToken.isEmpty() ? SEARCH_LIMIT_WITH_TOKEN : SEARCH_LIMIT_WITHOUT_TOKEN;
+        this.remaining = limit;
+        this.resetAtMillis = clock.millis() + SEARCH_WINDOW.toMillis();
+    }
+
+    /**
+     * Takes a permit if the budget allows it right now, without waiting.
+     * Every taken permit has to be given back with {@link #release()} once the request has completed.
+     *
+     * @return Whether a permit was taken
+     */
+    synchronized boolean tryTake() {
+        var now = clock.millis();
+        refillIfReset(now);
+        if (remaining - inFlight > 0 && now >= blockedUntilMillis) {
+            inFlight++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return The number of requests that could be sent right now, zero while GitHub asked to stop sending requests
+     */
+    synchronized int headroom() {
+        var now = clock.millis();
+        refillIfReset(now);
+        return now < blockedUntilMillis ? 0 : Math.max(0, remaining - inFlight);
+    }
+
+    /**
+     * @return The epoch milli from which a permit can be taken, the current time if one can be taken right away
+     */
+    synchronized long availableAtMillis() {
+        var now = clock.millis();
+        refillIfReset(now);
+        return Math.max(blockedUntilMillis, remaining - inFlight > 0 ? now : resetAtMillis);
+    }
+
+    /**
+     * Gives back the permit of a completed request.
+     */
+    public synchronized void release() {
+        inFlight = Math.max(0, inFlight - 1);
+    }
+
+    /**
+     * Updates the budget from the rate limit headers of a GitHub response.
+     *
+     * @param headers The response headers, containing X-RateLimit-* and optionally Retry-After
+     */
+    public synchronized void update(HttpHeaders headers) {
+        var reportedLimit = parseLong(headers.getFirst("X-RateLimit-Limit"));
+        var reportedRemaining = parseLong(headers.getFirst("X-RateLimit-Remaining"));
+        var reportedReset = parseLong(headers.getFirst("X-RateLimit-Reset"));
+        var retryAfter = parseLong(headers.getFirst(HttpHeaders.RETRY_AFTER));
+        if (reportedLimit != null) {
+            limit = reportedLimit.intValue();
+        }
+        if (reportedRemaining != null && reportedReset != null) {
+            var reportedResetMillis = reportedReset * 1000;
+            // responses of an elapsed window are stale, responses of the same window may arrive out of order
+            if (reportedResetMillis > clock.millis()) {
+                remaining = reportedResetMillis == resetAtMillis
+                        ? Math.min(remaining, reportedRemaining.intValue())
+                        : reportedRemaining.intValue();
+                resetAtMillis = reportedResetMillis;
+            }
+        }
+        if (retryAfter != null) {
+            blockedUntilMillis = Math.max(blockedUntilMillis, clock.millis() + retryAfter * 1000);
+        }
+    }
+
+    /**
+     * Reads the budget without changing it, so gauges and status requests never start a new window. An elapsed window
+     * is reported as refilled, the refill itself happens once a permit is taken.
+     *
+     * @return A snapshot of the currently tracked rate budget
+     */
+    public synchronized RateLimitStatus getStatus() {
+        var now = clock.millis();
+        var windowElapsed = now >= resetAtMillis;
+        var blockedUntil = blockedUntilMillis > now ? Instant.ofEpochMilli(blockedUntilMillis) : null;
+        return new RateLimitStatus(limit, windowElapsed ? limit : remaining, inFlight,
+                Instant.ofEpochMilli(windowElapsed ? now + SEARCH_WINDOW.toMillis() : resetAtMillis), blockedUntil);
+    }
+
+    private void refillIfReset(long now) {
+        if (now >= resetAtMillis) {
+            remaining = limit;
+            resetAtMillis = now + SEARCH_WINDOW.toMillis();
+        }
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
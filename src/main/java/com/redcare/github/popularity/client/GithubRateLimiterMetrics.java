@@ -0,0 +1,50 @@
+package com.redcare.github.popularity.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the rate budget and usage of every token of the {@link GithubTokenPool} as meters tagged with the token name.
+ */
+@Component
+@RequiredArgsConstructor
+public class GithubRateLimiterMetrics implements MeterBinder {
+
+    private final GithubTokenPool tokenPool;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (var token : tokenPool.getTokens()) {
+            var rateLimiter = token.getRateLimiter();
+            Gauge.builder("github.rate-limit.limit", rateLimiter, limiter -> limiter.getStatus().limit())
+                    .description("Search requests GitHub allows per window")
+                    .tag("token", token.getName())
+                    .register(registry);
+            Gauge.builder("github.rate-limit.remaining", rateLimiter, limiter -> limiter.getStatus().remaining())
+                    .description("Search requests left in the current window")
+                    .tag("token", token.getName())
+                    .register(registry);
+            Gauge.builder("github.rate-limit.in-flight", rateLimiter, limiter -> limiter.getStatus().inFlight())
+                    .description("Search requests currently in flight")
+                    .tag("token", token.getName())
+                    .register(registry);
+            Gauge.builder("github.rate-limit.reset", rateLimiter, limiter -> limiter.getStatus().resetAt().getEpochSecond())
+                    .description("Time at which the current window resets")
+                    .tag("token", token.getName())
+                    .baseUnit("seconds")
+                    .register(registry);
+            FunctionCounter.builder("github.token.requests", token, pooledToken -> pooledToken.getRequests().get())
+                    .description("Requests sent with the token")
+                    .tag("token", token.getName())
+                    .register(registry);
+            FunctionCounter.builder("github.token.rejections", token, pooledToken -> pooledToken.getRejections().get())
+                    .description("Requests GitHub rejected with 401, 403 or 429")
+                    .tag("token", token.getName())
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.exception.client.GithubAuthenticationException;
+import com.redcare.github.popularity.exception.client.GithubRateLimitException;
+import com.redcare.github.popularity.exception.client.GithubUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides whether and when a failed GitHub page request is sent again. Transient failures, i.e. 503, I/O errors and
+ * rate limit rejections, are retried after an exponential backoff with jitter, so concurrent crawls do not retry in
+ * lockstep. A rejected access token is only retried while another token of the pool is available. A secondary
+ * rate limit's {@code Retry-After} is honored by the {@link GithubTokenPool}, which does not hand out the rejected
+ * token before it has passed. Retries and hedged requests of one crawl share a {@link Budget}, so a failing GitHub is
+ * not hammered with retries.
+ */
+@Component
+public class GithubRetryPolicy {
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final double budgetRatio;
+
+    public GithubRetryPolicy(@Value("${github.retry.max-attempts:3}") int maxAttempts,
+                             @Value("${github.retry.initial-backoff:200ms}") Duration initialBackoff,
+                             @Value("${github.retry.max-backoff:5s}") Duration maxBackoff,
+                             @Value("${github.retry.budget-ratio:0.2}") double budgetRatio) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = Math.max(initialBackoffNanos, maxBackoff.toNanos());
+        this.budgetRatio = Math.max(0, budgetRatio);
+    }
+
+    /**
+     * @return A policy that sends every request once
+     */
+    public static GithubRetryPolicy disabled() {
+        return new GithubRetryPolicy(1, Duration.ZERO, Duration.ZERO, 0);
+    }
+
+    /**
+     * @param attempt The number of attempts made so far
+     * @param failure The failure of the last attempt
+     * @return Whether the request may be sent again, the crawl's budget still has to allow it
+     */
+    public boolean shouldRetry(int attempt, RuntimeException failure) {
+        return attempt < maxAttempts && !Thread.currentThread().isInterrupted()
+                && (failure instanceof GithubUnavailableException
+                || failure instanceof GithubRateLimitException
+                || failure instanceof ResourceAccessException
+                || failure instanceof GithubAuthenticationException authentication && authentication.isOtherTokenAvailable());
+    }
+
+    /**
+     * Exponential backoff with equal jitter: half of the doubled delay is fixed, the other half random.
+     *
+     * @param attempt The number of attempts made so far, starting at 1
+     * @return The time to wait before the next attempt
+     */
+    public Duration backoff(int attempt) {
+        var exponential = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 30));
+        var half = exponential / 2;
+        return Duration.ofNanos(half + (half > 0 ? ThreadLocalRandom.current().nextLong(half + 1) : 0));
+    }
+
+    /**
+     * @param pages     The number of pages of the crawl
+     * @param tokenPool The pool whose remaining rate allowance caps the extra requests
+     * @return The budget for retries and hedged requests of one crawl, a share of its pages but at least one request
+     */
+    public Budget budget(int pages, GithubTokenPool tokenPool) {
+        var extraRequests = budgetRatio == 0 ? 0 : Math.max(1, (int) Math.ceil(pages * budgetRatio));
+        return new Budget(extraRequests, tokenPool);
+    }
+
+    /**
+     * The extra requests one crawl may send on top of its pages. An extra request is only granted while a token of
+     * the pool has allowance left in its rate limit window.
+     */
+    public static final class Budget {
+        private final AtomicInteger remaining;
+        private final GithubTokenPool tokenPool;
+
+        private Budget(int extraRequests, GithubTokenPool tokenPool) {
+            this.remaining = new AtomicInteger(extraRequests);
+            this.tokenPool = tokenPool;
+        }
+
+        /**
+         * @return Whether an extra request has been granted
+         */
+        public boolean tryAcquire() {
+            if (!tokenPool.hasAllowance()) {
+                return false;
+            }
+            return remaining.getAndUpdate(count -> Math.max(0, count - 1)) > 0;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.model.GithubSearchParams;
+
+import java.util.Locale;
+
+/**
+ * Normalized identity of a GitHub search. Search params that lead to the same GitHub requests map to equal keys.
+ */
+public record GithubSearchKey(String earliestCreationDate, String language, int maxPages, int pageSize,
+                              boolean partitioned) {
+
+    /**
+     * Creates the key for the given search params. Blank filters are treated as absent and the language is compared
+     * case-insensitively like GitHub does.
+     */
+    public static GithubSearchKey of(GithubSearchParams searchParams) {
+        var earliestCreationDate = searchParams.earliestCreationDate();
+        if (earliestCreationDate != null && earliestCreationDate.isBlank()) {
+            earliestCreationDate = null;
+        }
+        var language = searchParams.language();
+        if (language != null) {
+            language = language.isBlank() ? null : language.trim().toLowerCase(Locale.ROOT);
+        }
+        return new GithubSearchKey(earliestCreationDate, language, searchParams.maxPages(), searchParams.pageSize(),
+                Boolean.TRUE.equals(searchParams.partitioned()));
+    }
+
+    public GithubSearchParams toSearchParams() {
+        return new GithubSearchParams(earliestCreationDate, language, maxPages, pageSize, null, null, partitioned);
+    }
+}
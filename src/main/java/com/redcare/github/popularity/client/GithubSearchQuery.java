@@ -0,0 +1,34 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.model.GithubSearchParams;
+
+/**
+ * Builds the query string of a GitHub repository search, shared by the REST and GraphQL clients.
+ */
+final class GithubSearchQuery {
+
+    private GithubSearchQuery() {
+    }
+
+    static String of(GithubSearchParams searchParams) {
+        String createdQualifier = null;
+        if (searchParams.earliestCreationDate() != null && !searchParams.earliestCreationDate().isEmpty()) {
+            createdQualifier = "created:>=" + searchParams.earliestCreationDate();
+        }
+        return of(createdQualifier, searchParams.language());
+    }
+
+    static String of(String qualifier, String language) {
+        var queryBuilder = new StringBuilder();
+        if (qualifier != null) {
+            queryBuilder.append(qualifier);
+        }
+        if (language != null && !language.isEmpty()) {
+            if (!queryBuilder.isEmpty()) {
+                queryBuilder.append(" ");
+            }
+            queryBuilder.append("language:").append(language);
+        }
+        return queryBuilder.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.exception.client.GithubApiException;
+import com.redcare.github.popularity.exception.client.GithubAuthenticationException;
+import com.redcare.github.popularity.exception.client.GithubRateLimitException;
+import com.redcare.github.popularity.exception.client.GithubUnavailableException;
+import com.redcare.github.popularity.exception.client.GithubValidationException;
+import com.redcare.github.popularity.model.GithubSearchParams;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Page limits and error mapping of GitHub search requests, shared by the blocking and the reactive REST client.
+ */
+final class GithubSearchRequests {
+    private static final int MAX_REQUESTS_WITH_TOKEN = 30;
+    private static final int MAX_REQUESTS_WITHOUT_TOKEN = 10;
+
+    private GithubSearchRequests() {
+    }
+
+    /**
+     * @return The requested number of pages, capped to what the search allows with or without an access token
+     */
+    static int cappedRequestCount(GithubSearchParams searchParams, GithubTokenPool tokenPool) {
+        // determine the maximum number of pages based on whether an access token is provided
+        var cappedRequestCount = tokenPool.isAuthenticated() ? MAX_REQUESTS_WITH_TOKEN : MAX_REQUESTS_WITHOUT_TOKEN;
+        // cap the requested pages to the maximum allowed
+        return Math.min(searchParams.maxPages(), cappedRequestCount);
+    }
+
+    /**
+     * @return Whether {@link #toException} maps the given response status
+     */
+    static boolean isMappedError(HttpStatusCode status) {
+        return status.isSameCodeAs(HttpStatus.UNPROCESSABLE_ENTITY) || status.isSameCodeAs(HttpStatus.UNAUTHORIZED)
+                || status.isSameCodeAs(HttpStatus.FORBIDDEN) || status.isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)
+                || status.isSameCodeAs(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Maps a failed search response to its exception. A token GitHub rejected with 401, 403 or 429 is handed back
+     * to the pool first, so the pool knows whether another token is left.
+     */
+    static GithubApiException toException(HttpStatusCode status, HttpHeaders headers, GithubToken token,
+                                          GithubTokenPool tokenPool) {
+        if (status.isSameCodeAs(HttpStatus.UNPROCESSABLE_ENTITY)) {
+            return new GithubValidationException("Invalid request parameters for GitHub API");
+        }
+        if (status.isSameCodeAs(HttpStatus.SERVICE_UNAVAILABLE)) {
+            return new GithubUnavailableException("GitHub API service is currently unavailable");
+        }
+        tokenPool.reject(token, status, headers);
+        if (status.isSameCodeAs(HttpStatus.UNAUTHORIZED)) {
+            return new GithubAuthenticationException("GitHub rejected the access token " + token.getName(),
+                    tokenPool.hasTokenAvailable());
+        }
+        return new GithubRateLimitException("Github API rate limit exceeded - try later or authenticate");
+    }
+}
@@ -0,0 +1,92 @@
+package com.redcare.github.popularity.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.redcare.github.popularity.model.GithubRepository;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a GitHub search page token by token straight into {@link GithubRepository} records.
+ * GitHub sends around 80 fields per item including nested owner and license objects, of which only the mapped
+ * fields are kept. All other values are skipped without building a tree or binding them to intermediate objects.
+ */
+public class GithubSearchResponseDeserializer extends StdDeserializer<GithubSearchResponse> {
+
+    public GithubSearchResponseDeserializer() {
+        super(GithubSearchResponse.class);
+    }
+
+    @Override
+    public GithubSearchResponse deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.isExpectedStartObjectToken()) {
+            return (GithubSearchResponse) context.handleUnexpectedToken(GithubSearchResponse.class, parser);
+        }
+        var repoCount = 0;
+        var hasMore = false;
+        List<GithubRepository> repositories = List.of();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var fieldName = parser.currentName();
+            parser.nextToken();
+            switch (fieldName) {
+                case "total_count" -> repoCount = parser.getValueAsInt();
+                case "incomplete_results" -> hasMore = parser.getValueAsBoolean();
+                case "items" -> repositories = readRepositories(parser, context);
+                default -> parser.skipChildren();
+            }
+        }
+        return new GithubSearchResponse(repoCount, hasMore, repositories);
+    }
+
+    private static List<GithubRepository> readRepositories(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return List.of();
+        }
+        if (!parser.isExpectedStartArrayToken()) {
+            context.reportWrongTokenException(GithubSearchResponse.class, JsonToken.START_ARRAY, "Expected array of search items");
+        }
+        List<GithubRepository> repositories = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            repositories.add(readRepository(parser));
+        }
+        return repositories;
+    }
+
+    private static GithubRepository readRepository(JsonParser parser) throws IOException {
+        var id = 0L;
+        String name = null;
+        String url = null;
+        Instant createdAt = null;
+        Instant pushedAt = null;
+        var starsCount = 0;
+        var forksCount = 0;
+        String language = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var fieldName = parser.currentName();
+            parser.nextToken();
+            switch (fieldName) {
+                case "id" -> id = parser.getValueAsLong();
+                case "full_name" -> name = parser.getValueAsString();
+                case "html_url" -> url = parser.getValueAsString();
+                case "created_at" -> createdAt = readInstant(parser);
+                case "pushed_at" -> pushedAt = readInstant(parser);
+                case "stargazers_count" -> starsCount = parser.getValueAsInt();
+                case "forks_count" -> forksCount = parser.getValueAsInt();
+                case "language" -> language = parser.getValueAsString();
+                // nested objects and arrays such as owner, license and topics are skipped as a whole
+                default -> parser.skipChildren();
+            }
+        }
+        return new GithubRepository(id, name, url, createdAt, pushedAt, starsCount, forksCount, language);
+    }
+
+    private static Instant readInstant(JsonParser parser) throws IOException {
+        var value = parser.getValueAsString();
+        return value == null || value.isEmpty() ? null : Instant.parse(value);
+    }
+}
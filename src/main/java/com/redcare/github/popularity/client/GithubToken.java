@@ -0,0 +1,63 @@
+package com.redcare.github.popularity.client;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An access token of the {@link GithubTokenPool} with its own rate budget. Requests without a token are represented
+ * by an anonymous token, so unauthenticated requests are balanced the same way.
+ */
+public final class GithubToken {
+
+    private final String name;
+    private final String accessToken;
+    private final GithubRateLimiter rateLimiter;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    // guarded by the pool
+    private long cooldownUntilMillis;
+
+    GithubToken(String name, String accessToken, GithubRateLimiter rateLimiter) {
+        this.name = name;
+        this.accessToken = accessToken;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Adds the authorization header of the token to a request, anonymous tokens add nothing.
+     */
+    public void authorize(HttpHeaders headers) {
+        if (accessToken != null) {
+            headers.setBearerAuth(accessToken);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isAnonymous() {
+        return accessToken == null;
+    }
+
+    GithubRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    AtomicLong getRequests() {
+        return requests;
+    }
+
+    AtomicLong getRejections() {
+        return rejections;
+    }
+
+    long getCooldownUntilMillis() {
+        return cooldownUntilMillis;
+    }
+
+    void setCooldownUntilMillis(long cooldownUntilMillis) {
+        this.cooldownUntilMillis = cooldownUntilMillis;
+    }
+}
@@ -0,0 +1,212 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.exception.client.GithubRateLimitException;
+import com.redcare.github.popularity.model.GithubTokenUsage;
+import com.redcare.github.popularity.model.RateLimitStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Pool of the configured GitHub access tokens, each with its own rate budget. Every request takes the token with the
+ * most headroom, so the search throughput grows with the number of tokens. A token GitHub rejects with 401, 403 or 429
+ * is cooled down and not used again before the cool-down and its rate limit window have passed, or for a secondary
+ * rate limit before its {@code Retry-After}.
+ * Without configured tokens the pool holds a single anonymous token with the unauthenticated budget.
+ */
+@Slf4j
+@Component
+public class GithubTokenPool {
+
+    private final List<GithubToken> tokens = new ArrayList<>();
+    private final Clock clock;
+    private final long maxWaitMillis;
+    private final long cooldownMillis;
+
+    public GithubTokenPool(@Value("${github.access-token:''}") String accessToken,
+                           @Value("${github.access-tokens:}") List<String> accessTokens,
+                           @Value("${github.rate-limit.max-wait:5s}") Duration maxWait,
+                           @Value("${github.token.cooldown:1m}") Duration cooldown, Clock clock) {
+        this.clock = clock;
+        this.maxWaitMillis = maxWait.toMillis();
+        this.cooldownMillis = cooldown.toMillis();
+        var distinctTokens = new LinkedHashSet<String>();
+        Stream.concat(Stream.of(accessToken), accessTokens == null ? Stream.empty() : accessTokens.stream())
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(token -> !token.isEmpty())
+                .forEach(distinctTokens::add);
+        for (var token : distinctTokens) {
+            tokens.add(new GithubToken("token-" + (tokens.size() + 1), token, new GithubRateLimiter(token, clock)));
+        }
+        if (tokens.isEmpty()) {
+            tokens.add(new GithubToken("anonymous", null, new GithubRateLimiter(null, clock)));
+        }
+        log.info("GitHub token pool with {} token(s)", distinctTokens.size());
+    }
+
+    /**
+     * Takes a permit of the token with the most headroom, waiting until any token's budget allows a request.
+     * Every acquired token has to be given back with {@link #release(GithubToken)} once the request has completed.
+     *
+     * @throws GithubRateLimitException if no token becomes available within the maximum wait time
+     */
+    public synchronized GithubToken acquire() {
+        var firstAttempt = clock.instant();
+        while (true) {
+            var permit = tryAcquire(firstAttempt);
+            if (permit.token() != null) {
+                return permit.token();
+            }
+            try {
+                wait(Math.max(1, permit.retryAfter().toMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GithubRateLimitException("Interrupted while waiting for GitHub rate limit");
+            }
+        }
+    }
+
+    /**
+     * Takes a permit of the token with the most headroom if any token's budget allows a request right now.
+     * Lets non-blocking callers schedule their next attempt instead of parking a thread.
+     *
+     * @param firstAttempt The time of the caller's first attempt, the maximum wait time counts from there
+     * @return The taken token, or the time after which the caller should try again
+     * @throws GithubRateLimitException if no token becomes available within the maximum wait time
+     */
+    public synchronized Permit tryAcquire(Instant firstAttempt) {
+        var now = clock.millis();
+        GithubToken best = null;
+        var bestHeadroom = 0;
+        for (var token : tokens) {
+            var headroom = token.getCooldownUntilMillis() > now ? 0 : token.getRateLimiter().headroom();
+            if (headroom > bestHeadroom) {
+                best = token;
+                bestHeadroom = headroom;
+            }
+        }
+        if (best != null && best.getRateLimiter().tryTake()) {
+            best.getRequests().incrementAndGet();
+            return new Permit(best, Duration.ZERO);
+        }
+        var availableAt = tokens.stream()
+                .mapToLong(token -> Math.max(token.getCooldownUntilMillis(), token.getRateLimiter().availableAtMillis()))
+                .min()
+                .orElseThrow();
+        if (availableAt > firstAttempt.toEpochMilli() + maxWaitMillis) {
+            throw new GithubRateLimitException("Github API rate limit of all tokens exhausted until "
+                    + Instant.ofEpochMilli(availableAt) + " - try later or add tokens");
+        }
+        return new Permit(null, Duration.ofMillis(Math.max(1, availableAt - now)));
+    }
+
+    /**
+     * Gives back the permit of a completed request.
+     */
+    public synchronized void release(GithubToken token) {
+        token.getRateLimiter().release();
+        notifyAll();
+    }
+
+    /**
+     * Updates the budget of a token from the rate limit headers of a GitHub response.
+     */
+    public synchronized void update(GithubToken token, HttpHeaders headers) {
+        token.getRateLimiter().update(headers);
+        notifyAll();
+    }
+
+    /**
+     * Cools a token down after GitHub rejected a request. The token is not used again before the cool-down has
+     * passed and GitHub's rate limit headers allow another request. A secondary rate limit tells how long to back off
+     * in its {@code Retry-After} header, the token is then only cooled down for that long.
+     *
+     * @param token   The token of the rejected request
+     * @param status  The response status, 401 for a revoked or invalid token, 403 or 429 for an exhausted budget
+     * @param headers The response headers
+     */
+    public synchronized void reject(GithubToken token, HttpStatusCode status, HttpHeaders headers) {
+        token.getRateLimiter().update(headers);
+        token.getRejections().incrementAndGet();
+        var availableAt = token.getRateLimiter().availableAtMillis();
+        var cooldownUntil = headers.containsKey(HttpHeaders.RETRY_AFTER) ? availableAt
+                : Math.max(clock.millis() + cooldownMillis, availableAt);
+        token.setCooldownUntilMillis(Math.max(token.getCooldownUntilMillis(), cooldownUntil));
+        log.warn("GitHub rejected {} with {}, cooling it down until {}", token.getName(), status.value(),
+                Instant.ofEpochMilli(cooldownUntil));
+        notifyAll();
+    }
+
+    /**
+     * @return Whether any token is not cooled down, e.g. to retry a request whose token GitHub rejected
+     */
+    public synchronized boolean hasTokenAvailable() {
+        var now = clock.millis();
+        return tokens.stream().anyMatch(token -> token.getCooldownUntilMillis() <= now);
+    }
+
+    /**
+     * @return Whether any token has search budget left in its rate limit window, regardless of cool-downs
+     */
+    public synchronized boolean hasAllowance() {
+        return tokens.stream()
+                .map(token -> token.getRateLimiter().getStatus())
+                .anyMatch(status -> status.remaining() - status.inFlight() > 0);
+    }
+
+    /**
+     * @return Whether requests are sent with access tokens
+     */
+    public boolean isAuthenticated() {
+        return !tokens.get(0).isAnonymous();
+    }
+
+    public List<GithubToken> getTokens() {
+        return List.copyOf(tokens);
+    }
+
+    /**
+     * @return The combined rate budget of all tokens, resetting with the earliest window
+     */
+    public RateLimitStatus getStatus() {
+        var statuses = tokens.stream().map(token -> token.getRateLimiter().getStatus()).toList();
+        return new RateLimitStatus(
+                statuses.stream().mapToInt(RateLimitStatus::limit).sum(),
+                statuses.stream().mapToInt(RateLimitStatus::remaining).sum(),
+                statuses.stream().mapToInt(RateLimitStatus::inFlight).sum(),
+                statuses.stream().map(RateLimitStatus::resetAt).min(Instant::compareTo).orElseThrow(),
+                // the pool is only blocked if every token is
+                statuses.stream().anyMatch(status -> status.blockedUntil() == null) ? null
+                        : statuses.stream().map(RateLimitStatus::blockedUntil).min(Instant::compareTo).orElseThrow());
+    }
+
+    /**
+     * @return The usage of every token of the pool
+     */
+    public synchronized List<GithubTokenUsage> getUsage() {
+        var now = clock.millis();
+        return tokens.stream()
+                .map(token -> new GithubTokenUsage(token.getName(), token.getRateLimiter().getStatus(),
+                        token.getCooldownUntilMillis() > now ? Instant.ofEpochMilli(token.getCooldownUntilMillis()) : null,
+                        token.getRequests().get(), token.getRejections().get()))
+                .toList();
+    }
+
+    /**
+     * The result of {@link #tryAcquire(Instant)}, either a token or the time after which to try again.
+     */
+    public record Permit(GithubToken token, Duration retryAfter) {
+    }
+}
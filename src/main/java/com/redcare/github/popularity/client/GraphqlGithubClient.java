@@ -0,0 +1,186 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.exception.UnsupportedSearchException;
+import com.redcare.github.popularity.exception.client.GithubApiException;
+import com.redcare.github.popularity.exception.client.GithubAuthenticationException;
+import com.redcare.github.popularity.exception.client.GithubRateLimitException;
+import com.redcare.github.popularity.exception.client.GithubUnavailableException;
+import com.redcare.github.popularity.exception.client.GithubValidationException;
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.GithubSearchParams;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GithubClient on the GitHub GraphQL search API. Only the fields that are scored are requested, which shrinks the
+ * payload per repository to a fraction of the REST search items. Pages are fetched one after another by cursor,
+ * each query reserves its cost from the GraphQL point budget first.
+ * The GraphQL API requires an access token. Partitioned crawls are not supported and rejected, searches stop at
+ * GitHub's cap of 1000 results per query.
+ */
+@Service
+@ConditionalOnProperty(name = "github.client", havingValue = "graphql")
+public class GraphqlGithubClient implements GithubClient {
+    // GitHub search returns at most 1000 results per query
+    private static final int MAX_SEARCH_RESULTS = 1000;
+    // a search connection costs one point per started 100 nodes
+    private static final int NODES_PER_POINT = 100;
+    private static final String SEARCH_QUERY = """
+            query($query: String!, $first: Int!, $after: String) {
+              rateLimit { cost remaining resetAt }
+              search(query: $query, type: REPOSITORY, first: $first, after: $after) {
+                repositoryCount
+                pageInfo { hasNextPage endCursor }
+                nodes {
+                  ... on Repository {
+                    databaseId nameWithOwner url createdAt pushedAt stargazerCount forkCount primaryLanguage { name }
+                  }
+                }
+              }
+            }""";
+
+    private final String accessToken;
+    private final RestClient restClient;
+    private final GraphqlRateBudget rateBudget;
+    private final MeterRegistry meterRegistry;
+
+    public GraphqlGithubClient(@Value("${github.access-token:''}") String accessToken, RestClient restClient,
+                               Clock clock, MeterRegistry meterRegistry) {
+        if (accessToken == null || accessToken.isBlank()) {
+            throw new IllegalStateException("The GitHub GraphQL API requires github.access-token to be set");
+        }
+        this.accessToken = accessToken;
+        this.restClient = restClient;
+        this.rateBudget = new GraphqlRateBudget(clock);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("github.graphql.points.remaining", rateBudget, GraphqlRateBudget::getRemaining)
+                .description("GraphQL rate limit points left in the current window")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retrieves GitHub repositories based on creation date and programming language through the GraphQL search API.
+     *
+     * @param searchParams The search parameters containing criteria such as creation date range,
+     *                     programming language and pagination options
+     * @return A list of GitHub repositories matching the specified criteria
+     */
+    @Override
+    public List<GithubRepository> getRepositories(GithubSearchParams searchParams) {
+        List<GithubRepository> result = new ArrayList<>();
+        streamRepositories(searchParams, page -> {
+            result.addAll(page);
+            return true;
+        });
+        return result;
+    }
+
+    /**
+     * Retrieves GitHub repositories page by page, following the end cursor of each page until the consumer wants no
+     * further pages.
+     *
+     * @param searchParams The search parameters containing criteria such as creation date range,
+     *                     programming language and pagination options
+     * @param pageConsumer Receives the repositories of each page in page order and returns whether to continue
+     */
+    @Override
+    public void streamRepositories(GithubSearchParams searchParams, GithubPageConsumer pageConsumer) {
+        if (Boolean.TRUE.equals(searchParams.partitioned())) {
+            // answering with the first 1000 results would silently return a different result than asked for
+            throw new UnsupportedSearchException("Partitioned searches are not supported by the GitHub GraphQL client");
+        }
+        var query = GithubSearchQuery.of(searchParams);
+        var pageSize = searchParams.pageSize();
+        var maxPages = Math.min(searchParams.maxPages(), (int) Math.ceil((double) MAX_SEARCH_RESULTS / pageSize));
+        String cursor = null;
+        for (var page = 1; page <= maxPages; page++) {
+            var search = fetchPage(query, pageSize, cursor);
+            var wantsMore = pageConsumer.accept(search.nodes().stream()
+                    .map(GraphqlSearchResponse.Repository::toGithubRepository)
+                    .toList());
+            if (!wantsMore || !search.pageInfo().hasNextPage()) {
+                return;
+            }
+            cursor = search.pageInfo().endCursor();
+        }
+    }
+
+    private GraphqlSearchResponse.Search fetchPage(String query, int pageSize, String cursor) {
+        var sample = Timer.start(meterRegistry);
+        var outcome = "success";
+        try {
+            rateBudget.reserve(Math.max(1, (int) Math.ceil((double) pageSize / NODES_PER_POINT)));
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("query", query);
+            variables.put("first", pageSize);
+            variables.put("after", cursor);
+            var response = restClient.post()
+                    .uri("/graphql")
+                    .headers(headers -> headers.setBearerAuth(accessToken))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .body(Map.of("query", SEARCH_QUERY, "variables", variables))
+                    .retrieve()
+                    .onStatus(status -> status.equals(HttpStatus.FORBIDDEN) || status.equals(HttpStatus.TOO_MANY_REQUESTS),
+                            (request, errorResponse) -> {
+                                throw new GithubRateLimitException("Github GraphQL API rate limit exceeded - try later");
+                            })
+                    .onStatus(HttpStatus.UNAUTHORIZED::equals,
+                            (request, errorResponse) -> {
+                                throw new GithubAuthenticationException("GitHub GraphQL API rejected the access token", false);
+                            })
+                    .onStatus(status -> status.is5xxServerError(),
+                            (request, errorResponse) -> {
+                                throw new GithubUnavailableException("GitHub GraphQL API is currently unavailable");
+                            })
+                    .body(GraphqlSearchResponse.class);
+            return getSearch(response);
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            if (e instanceof GithubApiException) {
+                meterRegistry.counter(RateAwareGithubClient.ERRORS_METRIC, "type", outcome).increment();
+            }
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("github.graphql.page.fetch")
+                    .description("Duration of GitHub GraphQL search page requests")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private GraphqlSearchResponse.Search getSearch(GraphqlSearchResponse response) {
+        if (response == null) {
+            throw new GithubUnavailableException("GitHub GraphQL API returned no response");
+        }
+        if (response.data() != null && response.data().rateLimit() != null) {
+            rateBudget.update(response.data().rateLimit());
+        }
+        // GraphQL reports failures with status 200 and an errors array
+        if (response.errors() != null && !response.errors().isEmpty()) {
+            var error = response.errors().get(0);
+            if ("RATE_LIMITED".equals(error.type())) {
+                throw new GithubRateLimitException("Github GraphQL API rate limit exceeded - try later");
+            }
+            throw new GithubValidationException("GitHub GraphQL search failed: " + error.message());
+        }
+        if (response.data() == null || response.data().search() == null) {
+            throw new GithubUnavailableException("GitHub GraphQL API returned no search result");
+        }
+        return response.data().search();
+    }
+}
@@ -0,0 +1,60 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.exception.client.GithubRateLimitException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Point budget of the GitHub GraphQL API. Every query reserves its estimated cost up front and the budget is corrected
+ * with the cost and remaining points GitHub reports in the response, so queries that would exceed the budget are
+ * rejected before they are sent.
+ */
+class GraphqlRateBudget {
+    // GitHub grants 5000 points per hour to a personal access token
+    static final int POINTS_PER_HOUR = 5000;
+    private static final Duration WINDOW = Duration.ofHours(1);
+
+    private final Clock clock;
+    private int remaining;
+    private Instant resetAt;
+
+    GraphqlRateBudget(Clock clock) {
+        this.clock = clock;
+        this.remaining = POINTS_PER_HOUR;
+        this.resetAt = clock.instant().plus(WINDOW);
+    }
+
+    /**
+     * Reserves the estimated cost of a query.
+     *
+     * @throws GithubRateLimitException if the remaining points do not cover the cost
+     */
+    synchronized void reserve(int cost) {
+        var now = clock.instant();
+        if (!now.isBefore(resetAt)) {
+            remaining = POINTS_PER_HOUR;
+            resetAt = now.plus(WINDOW);
+        }
+        if (remaining < cost) {
+            throw new GithubRateLimitException("Github GraphQL API rate limit exhausted until " + resetAt + " - try later");
+        }
+        remaining -= cost;
+    }
+
+    /**
+     * Takes over the budget reported by GitHub.
+     */
+    synchronized void update(GraphqlSearchResponse.RateLimit rateLimit) {
+        if (rateLimit.resetAt() != null && rateLimit.resetAt().isAfter(clock.instant())) {
+            // responses of the same window may arrive out of order, the lowest remaining budget is the latest
+            remaining = rateLimit.resetAt().equals(resetAt) ? Math.min(remaining, rateLimit.remaining()) : rateLimit.remaining();
+            resetAt = rateLimit.resetAt();
+        }
+    }
+
+    synchronized int getRemaining() {
+        return remaining;
+    }
+}
@@ -0,0 +1,48 @@
+package com.redcare.github.popularity.client;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.redcare.github.popularity.model.GithubRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Response of the GraphQL search query of {@link GraphqlGithubClient}, only containing the requested fields.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+record GraphqlSearchResponse(Data data, List<Error> errors) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Data(RateLimit rateLimit, Search search) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record RateLimit(int cost, int remaining, Instant resetAt) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Search(int repositoryCount, PageInfo pageInfo, List<Repository> nodes) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PageInfo(boolean hasNextPage, String endCursor) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Repository(long databaseId, String nameWithOwner, String url, Instant createdAt, Instant pushedAt,
+                      int stargazerCount, int forkCount, Language primaryLanguage) {
+
+        GithubRepository toGithubRepository() {
+            return new GithubRepository(databaseId, nameWithOwner, url, createdAt, pushedAt, stargazerCount, forkCount,
+                    primaryLanguage == null ? null : primaryLanguage.name());
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Language(String name) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Error(String type, String message) {
+    }
+}
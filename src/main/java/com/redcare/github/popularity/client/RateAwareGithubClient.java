@@ -1,32 +1,81 @@
 package com.redcare.github.popularity.client;
 
+import com.redcare.github.popularity.exception.client.GithubApiException;
 import com.redcare.github.popularity.exception.client.GithubNotModifiedException;
-import com.redcare.github.popularity.exception.client.GithubRateLimitException;
 import com.redcare.github.popularity.exception.client.GithubUnavailableException;
-import com.redcare.github.popularity.exception.client.GithubValidationException;
 import com.redcare.github.popularity.model.GithubRepository;
 import com.redcare.github.popularity.model.GithubSearchParams;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.util.UriBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
+@Slf4j
 @Service
 public class RateAwareGithubClient implements GithubClient {
-    private static final int MAX_REQUESTS_WITH_TOKEN = 30;
-    private static final int MAX_REQUESTS_WITHOUT_TOKEN = 10;
+    // GitHub search returns at most 1000 results per query
+    private static final int MAX_SEARCH_RESULTS = 1000;
+    // repositories cannot have been created before GitHub went live
+    private static final LocalDate GITHUB_LAUNCH_DATE = LocalDate.of(2008, 1, 1);
+    // METRICS
+    static final String PAGE_FETCH_METRIC = "github.page.fetch";
+    // shared with the GraphQL client, so errors of either client show up on one meter
+    static final String ERRORS_METRIC = "github.errors";
+    static final String REQUEST_PAGES_METRIC = "github.request.pages";
+    static final String RETRIES_METRIC = "github.retries";
+    private static final String PARTITIONED_DROPPED_METRIC = "github.partitioned.dropped";
 
-    private final String accessToken;
     private final RestClient restClient;
+    private final ExecutorService fetchExecutor;
+    private final int fetchConcurrency;
+    private final ConditionalRequestCache conditionalRequestCache;
+    private final GithubTokenPool tokenPool;
+    private final GithubRetryPolicy retryPolicy;
+    private final GithubPageHedging pageHedging;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
 
-    public RateAwareGithubClient(@Value("${github.access-token:''}") String accessToken, RestClient restClient) {
-        this.accessToken = accessToken;
+    public RateAwareGithubClient(RestClient restClient, @Qualifier("githubFetchExecutor") ExecutorService fetchExecutor,
+                                 @Value("${github.fetch.concurrency:4}") int fetchConcurrency,
+                                 ConditionalRequestCache conditionalRequestCache, GithubTokenPool tokenPool,
+                                 GithubRetryPolicy retryPolicy, GithubPageHedging pageHedging, Clock clock,
+                                 MeterRegistry meterRegistry) {
         this.restClient = restClient;
+        this.fetchExecutor = fetchExecutor;
+        this.fetchConcurrency = Math.max(1, fetchConcurrency);
+        this.conditionalRequestCache = conditionalRequestCache;
+        this.tokenPool = tokenPool;
+        this.retryPolicy = retryPolicy;
+        this.pageHedging = pageHedging;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -39,68 +88,332 @@ public class RateAwareGithubClient implements GithubClient {
      */
     @Override
     public List<GithubRepository> getRepositories(GithubSearchParams searchParams) {
-        // determine the maximum number of pages based on whether an access token is provided
-        var cappedRequestCount = accessToken != null && !accessToken.isEmpty() ? MAX_REQUESTS_WITH_TOKEN : MAX_REQUESTS_WITHOUT_TOKEN;
-        // cap the requested pages to the maximum allowed
-        cappedRequestCount = Math.min(searchParams.maxPages(), cappedRequestCount);
-        var firstResponse = fetchPage(searchParams, 1);
-        List<GithubRepository> result = new ArrayList<>(firstResponse.repositories());
+        List<GithubRepository> result = new ArrayList<>();
+        streamRepositories(searchParams, page -> {
+            result.addAll(page);
+            return true;
+        });
+        return result;
+    }
+
+    /**
+     * Retrieves GitHub repositories page by page and hands each page to the consumer as soon as it and all
+     * preceding pages have been fetched. Once the consumer wants no further pages, no further pages are requested
+     * and the pages still in flight are cancelled.
+     *
+     * @param searchParams The search parameters containing criteria such as creation date range,
+     *                     programming language and pagination options
+     * @param pageConsumer Receives the repositories of each page in page order and returns whether to continue
+     */
+    @Override
+    public void streamRepositories(GithubSearchParams searchParams, GithubPageConsumer pageConsumer) {
+        if (Boolean.TRUE.equals(searchParams.partitioned())) {
+            recordRequestPages("partitioned", streamPartitioned(searchParams, pageConsumer));
+            return;
+        }
+        var crawl = streamQuery(GithubSearchQuery.of(searchParams), searchParams.pageSize(), GithubSearchRequests.cappedRequestCount(searchParams, tokenPool),
+                false, pageConsumer);
+        recordRequestPages("search", crawl.pages());
+    }
+
+    /**
+     * Retrieves the GitHub repositories of a language that have been pushed to within the given range,
+     * page by page. Used to keep local copies of repository data fresh without crawling everything again.
+     * If the range holds more repositories than the pages or GitHub's cap of 1000 results per query allow, only its
+     * first page is fetched and the returned progress is incomplete, so the caller can split the range.
+     *
+     * @param language     The programming language of the repositories
+     * @param pushedFrom   Only repositories pushed to at or after this instant are returned
+     * @param pushedTo     Only repositories pushed to at or before this instant are returned
+     * @param maxPages     Maximum number of pages to fetch, capped like the pages of a search
+     * @param pageConsumer Receives the repositories of each page in page order
+     * @return The fetched pages and whether they hold all repositories of the range
+     */
+    public CrawlProgress streamRepositoriesPushedBetween(String language, Instant pushedFrom, Instant pushedTo, int maxPages,
+                                                         Consumer<List<GithubRepository>> pageConsumer) {
+        var searchParams = new GithubSearchParams(null, language, maxPages, null);
+        var query = GithubSearchQuery.of("pushed:" + pushedFrom.truncatedTo(ChronoUnit.SECONDS) + ".."
+                + pushedTo.truncatedTo(ChronoUnit.SECONDS), language);
+        var crawl = streamQuery(query, searchParams.pageSize(), GithubSearchRequests.cappedRequestCount(searchParams, tokenPool), true,
+                page -> {
+                    pageConsumer.accept(page);
+                    return true;
+                });
+        recordRequestPages("pushed-between", crawl.pages());
+        return crawl;
+    }
+
+    /**
+     * @param stopIfIncomplete Whether to stop after the first page if the remaining pages cannot hold all results
+     */
+    private CrawlProgress streamQuery(String query, int pageSize, int cappedRequestCount, boolean stopIfIncomplete,
+                                      GithubPageConsumer pageConsumer) {
+        var retryBudget = retryPolicy.budget(cappedRequestCount, tokenPool);
+        var firstPage = new PageRequest(query, 1, pageSize);
+        var firstResponses = new ArrayList<GithubSearchResponse>(1);
+        fetchPages(List.of(firstPage), retryBudget, (request, response) -> {
+            firstResponses.add(response);
+            return true;
+        });
+        var firstResponse = firstResponses.get(0);
         // calculate how many more pages need to be fetched
-        var totalPages = (int) Math.ceil((double) firstResponse.repoCount() / searchParams.pageSize());
+        var totalPages = (int) Math.ceil((double) firstResponse.repoCount() / pageSize);
+        var complete = firstResponse.repoCount() <= Math.min(MAX_SEARCH_RESULTS, (long) cappedRequestCount * pageSize);
+        if (!pageConsumer.accept(firstResponse.repositories())) {
+            return new CrawlProgress(1, complete && totalPages <= 1);
+        }
+        if (!complete && stopIfIncomplete) {
+            return new CrawlProgress(1, false);
+        }
         if (totalPages > 1) {
             // bound the capped request count to the total pages
             cappedRequestCount = Math.min(cappedRequestCount, totalPages);
+            List<PageRequest> pageRequests = new ArrayList<>(cappedRequestCount - 1);
             for (int page = 2; page <= cappedRequestCount; page++) {
-                var response = fetchPage(searchParams, page);
-                result.addAll(response.repositories());
+                pageRequests.add(new PageRequest(query, page, pageSize));
             }
+            var fetchedPages = fetchPages(pageRequests, retryBudget,
+                    (request, response) -> pageConsumer.accept(response.repositories()));
+            return new CrawlProgress(1 + fetchedPages, complete && fetchedPages == pageRequests.size());
         }
-        return result;
+        return new CrawlProgress(1, complete);
     }
 
-    private GithubSearchResponse fetchPage(GithubSearchParams searchParams, int page) {
-        return restClient.get()
-                .uri(x -> getUri(searchParams, page, x))
-                .retrieve()
-                .onStatus(status -> status.equals(HttpStatus.NOT_MODIFIED),
-                        (request, response) -> {
-                            throw new GithubNotModifiedException("Resource not modified since last request");
-                        })
-                .onStatus(status -> status.equals(HttpStatus.UNPROCESSABLE_ENTITY),
-                        (request, response) -> {
-                            throw new GithubValidationException("Invalid request parameters for GitHub API");
-                        })
-                .onStatus(status -> status.equals(HttpStatus.FORBIDDEN),
-                        (request, response) -> {
-                            throw new GithubRateLimitException("Github API rate limit exceeded - try later or authenticate");
-                        })
-                .onStatus(status -> status.equals(HttpStatus.SERVICE_UNAVAILABLE),
-                        (request, response) -> {
-                            throw new GithubUnavailableException("GitHub API service is currently unavailable");
+    /**
+     * Crawls beyond GitHub's cap of 1000 results per query by splitting the creation date range recursively until
+     * each slice has at most 1000 results. The first page of every slice doubles as the probe for its total count.
+     * Probes of one split level and the remaining pages of all complete slices are fetched concurrently.
+     * The capped page count is the budget for all requests including probes, results are deduplicated by id.
+     * Ranges that are left unprobed and slice pages that are left unfetched once the budget is spent are logged and
+     * counted, the result then misses their repositories. Once the consumer wants no further pages, neither further
+     * probes nor slice pages are fetched.
+     *
+     * @return The number of fetched pages including probes
+     */
+    private int streamPartitioned(GithubSearchParams searchParams, GithubPageConsumer pageConsumer) {
+        var initialPageBudget = GithubSearchRequests.cappedRequestCount(searchParams, tokenPool);
+        var pageBudget = initialPageBudget;
+        var retryBudget = retryPolicy.budget(initialPageBudget, tokenPool);
+        var pageSize = searchParams.pageSize();
+        var maxPagesPerSlice = Math.max(1, MAX_SEARCH_RESULTS / pageSize);
+        Set<Long> seenIds = new HashSet<>();
+        var stopped = new boolean[1];
+        Predicate<GithubSearchResponse> emitUnseen = response -> {
+            var unseen = response.repositories().stream().filter(repository -> seenIds.add(repository.id())).toList();
+            stopped[0] = !pageConsumer.accept(unseen);
+            return !stopped[0];
+        };
+        var fetchedPages = 0;
+        List<PageRequest> slicePages = new ArrayList<>();
+        List<CreationDateRange> ranges = List.of(new CreationDateRange(getEarliestCreationDate(searchParams), LocalDate.now(clock)));
+        while (!ranges.isEmpty() && pageBudget > 0 && !stopped[0]) {
+            var probedRanges = ranges.subList(0, Math.min(ranges.size(), pageBudget));
+            pageBudget -= probedRanges.size();
+            Map<PageRequest, CreationDateRange> probes = new LinkedHashMap<>();
+            probedRanges.forEach(range ->
+                    probes.put(new PageRequest(GithubSearchQuery.of(range.toQualifier(), searchParams.language()), 1, pageSize), range));
+            List<CreationDateRange> splitRanges = new ArrayList<>();
+            fetchedPages += fetchPages(new ArrayList<>(probes.keySet()), retryBudget, (probe, response) -> {
+                var range = probes.get(probe);
+                if (response.repoCount() > MAX_SEARCH_RESULTS && !range.isSingleDay()) {
+                    splitRanges.addAll(range.split());
+                    return true;
+                }
+                var slicePageCount = Math.min(maxPagesPerSlice, (int) Math.ceil((double) response.repoCount() / pageSize));
+                for (int page = 2; page <= slicePageCount; page++) {
+                    slicePages.add(new PageRequest(probe.query(), page, pageSize));
+                }
+                return emitUnseen.test(response);
+            });
+            ranges = splitRanges;
+        }
+        if (stopped[0]) {
+            return fetchedPages;
+        }
+        var fetchedSlicePages = slicePages.subList(0, Math.min(slicePages.size(), pageBudget));
+        recordDropped(searchParams, ranges.size(), slicePages.size() - fetchedSlicePages.size());
+        return fetchedPages + fetchPages(fetchedSlicePages, retryBudget, (request, response) -> emitUnseen.test(response));
+    }
+
+    private void recordDropped(GithubSearchParams searchParams, int droppedRanges, int droppedPages) {
+        if (droppedRanges == 0 && droppedPages == 0) {
+            return;
+        }
+        log.warn("Partitioned search for {} since {} ran out of its page budget, dropping {} unprobed date range(s) "
+                        + "and {} slice page(s)", searchParams.language(), searchParams.earliestCreationDate(),
+                droppedRanges, droppedPages);
+        meterRegistry.counter(PARTITIONED_DROPPED_METRIC, "kind", "ranges").increment(droppedRanges);
+        meterRegistry.counter(PARTITIONED_DROPPED_METRIC, "kind", "pages").increment(droppedPages);
+    }
+
+    private void recordRequestPages(String mode, int pages) {
+        DistributionSummary.builder(REQUEST_PAGES_METRIC)
+                .description("GitHub pages fetched per search")
+                .tag("mode", mode)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(pages);
+    }
+
+    private static LocalDate getEarliestCreationDate(GithubSearchParams searchParams) {
+        if (searchParams.earliestCreationDate() == null || searchParams.earliestCreationDate().isEmpty()) {
+            return GITHUB_LAUNCH_DATE;
+        }
+        var earliestCreationDate = LocalDate.parse(searchParams.earliestCreationDate());
+        return earliestCreationDate.isBefore(GITHUB_LAUNCH_DATE) ? GITHUB_LAUNCH_DATE : earliestCreationDate;
+    }
+
+    /**
+     * Fetches the given pages concurrently on the bounded fetch executor and hands the responses to the consumer
+     * in request order. At most {@code fetchConcurrency} pages of one request are in flight or waiting to be consumed,
+     * which bounds both the share of the executor and the memory a single request occupies.
+     * Failed pages are retried and slow pages hedged as long as the crawl's retry budget allows it.
+     * If any page fails for good, the remaining in-flight pages are cancelled and the failure is rethrown.
+     * Once the consumer returns false, the remaining in-flight pages are cancelled and no further pages are requested.
+     *
+     * @return The number of pages handed to the consumer
+     */
+    private int fetchPages(List<PageRequest> pageRequests, GithubRetryPolicy.Budget retryBudget,
+                           BiPredicate<PageRequest, GithubSearchResponse> responseConsumer) {
+        Deque<Future<GithubSearchResponse>> futures = new ArrayDeque<>(fetchConcurrency);
+        var nextRequest = 0;
+        var consumedRequest = 0;
+        var completed = false;
+        try {
+            while (consumedRequest < pageRequests.size()) {
+                // keep the window of in-flight pages filled
+                while (nextRequest < pageRequests.size() && futures.size() < fetchConcurrency) {
+                    var pageRequest = pageRequests.get(nextRequest++);
+                    futures.add(pageHedging.submit(onSent -> fetchPageWithRetries(pageRequest, retryBudget, onSent), fetchExecutor,
+                            retryBudget::tryAcquire));
+                }
+                if (!responseConsumer.test(pageRequests.get(consumedRequest++), futures.poll().get())) {
+                    return consumedRequest;
+                }
+            }
+            completed = true;
+            return consumedRequest;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Fetching GitHub page failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GithubUnavailableException("Interrupted while waiting for GitHub pages");
+        } finally {
+            if (!completed) {
+                cancelAll(futures);
+            }
+        }
+    }
+
+    private static void cancelAll(Deque<Future<GithubSearchResponse>> futures) {
+        futures.forEach(future -> future.cancel(true));
+    }
+
+    /**
+     * Fetches a single search page, retrying transient failures after a backoff while the crawl's budget allows it.
+     * A page that failed for good fails with its last failure.
+     */
+    private GithubSearchResponse fetchPageWithRetries(PageRequest pageRequest, GithubRetryPolicy.Budget retryBudget,
+                                                      Runnable onSent) {
+        for (var attempt = 1; ; attempt++) {
+            try {
+                return fetchPage(pageRequest, onSent);
+            } catch (RuntimeException e) {
+                if (!retryPolicy.shouldRetry(attempt, e) || !retryBudget.tryAcquire()) {
+                    throw e;
+                }
+                meterRegistry.counter(RETRIES_METRIC, "type", e.getClass().getSimpleName()).increment();
+                try {
+                    Thread.sleep(retryPolicy.backoff(attempt).toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fetches a single search page. The page is requested conditionally if it has been fetched before,
+     * a 304 response is then answered with the stored body.
+     * Every request is sent with the pooled token with the most headroom and reports the rate limit headers back to it,
+     * a token GitHub rejects is cooled down.
+     * The duration of every page is recorded by outcome, failures are counted by exception type.
+     */
+    private GithubSearchResponse fetchPage(PageRequest pageRequest, Runnable onSent) {
+        var pageUri = getUri(pageRequest, UriComponentsBuilder.newInstance()).toString();
+        var storedPage = conditionalRequestCache.get(pageUri);
+        var sample = Timer.start(meterRegistry);
+        var outcome = "success";
+        try {
+            var token = tokenPool.acquire();
+            // hedging compares the latency of GitHub's answer, not the wait for a token
+            var start = System.nanoTime();
+            onSent.run();
+            try {
+                var responseEntity = restClient.get()
+                        .uri(x -> getUri(pageRequest, x))
+                        .headers(headers -> {
+                            token.authorize(headers);
+                            ConditionalRequestCache.applyValidators(storedPage, headers);
                         })
-                .body(GithubSearchResponse.class);
+                        .retrieve()
+                        .onStatus(GithubSearchRequests::isMappedError,
+                                (request, response) -> {
+                                    throw GithubSearchRequests.toException(response.getStatusCode(), response.getHeaders(),
+                                            token, tokenPool);
+                                })
+                        .toEntity(GithubSearchResponse.class);
+                tokenPool.update(token, responseEntity.getHeaders());
+                if (responseEntity.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                    // only a conditional request can be answered with 304, without a stored page there is nothing to rebuild
+                    if (storedPage == null) {
+                        throw new GithubNotModifiedException("Resource not modified since last request");
+                    }
+                    outcome = "not-modified";
+                    pageHedging.record(System.nanoTime() - start);
+                    return storedPage.response();
+                }
+                conditionalRequestCache.put(pageUri, responseEntity.getHeaders(), responseEntity.getBody());
+                pageHedging.record(System.nanoTime() - start);
+                return responseEntity.getBody();
+            } finally {
+                tokenPool.release(token);
+            }
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            if (e instanceof GithubApiException) {
+                meterRegistry.counter(ERRORS_METRIC, "type", outcome).increment();
+            }
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(PAGE_FETCH_METRIC)
+                    .description("Duration of GitHub search page requests")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
     }
 
-    private URI getUri(GithubSearchParams searchParams, int page, UriBuilder uriBuilder) {
+    private URI getUri(PageRequest pageRequest, UriBuilder uriBuilder) {
         return uriBuilder
                 .path("/search/repositories")
-                .queryParam("q", buildSearchQuery(searchParams))
-                .queryParam("page", page)
-                .queryParam("per_page", searchParams.pageSize())
+                .queryParam("q", pageRequest.query())
+                .queryParam("page", pageRequest.page())
+                .queryParam("per_page", pageRequest.pageSize())
                 .build();
     }
 
-    private String buildSearchQuery(GithubSearchParams searchParams) {
-        var queryBuilder = new StringBuilder();
-        if (searchParams.earliestCreationDate() != null && !searchParams.earliestCreationDate().isEmpty()) {
-            queryBuilder.append("created:>=").append(searchParams.earliestCreationDate());
-        }
-        if (searchParams.language() != null && !searchParams.language().isEmpty()) {
-            if (!queryBuilder.isEmpty()) {
-                queryBuilder.append(" ");
-            }
-            queryBuilder.append("language:").append(searchParams.language());
-        }
-        return queryBuilder.toString();
+    private record PageRequest(String query, int page, int pageSize) {
+    }
+
+    /**
+     * @param pages    The number of fetched pages
+     * @param complete Whether the pages hold every repository GitHub counted for the query
+     */
+    public record CrawlProgress(int pages, boolean complete) {
     }
 }
@@ -0,0 +1,19 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.GithubSearchParams;
+import reactor.core.publisher.Flux;
+
+public interface ReactiveGithubClient {
+
+    /**
+     * Retrieves GitHub repositories based on search parameters without blocking the calling thread.
+     * Repositories are emitted in page order as their pages arrive, pages are only requested as fast as
+     * the subscriber consumes them.
+     *
+     * @param searchParams The search parameters containing criteria such as creation date range,
+     *                     programming language and pagination options
+     * @return A flux of GitHub repositories matching the specified criteria
+     */
+    Flux<GithubRepository> getRepositories(GithubSearchParams searchParams);
+}
@@ -0,0 +1,176 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.exception.client.GithubApiException;
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.GithubSearchParams;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking GithubClient on the WebClient. Shares the token pool with the blocking client, but waits for
+ * permits with timers instead of parked threads. Pages are fetched in order with at most {@code fetchConcurrency}
+ * pages of a search in flight, and only as fast as the subscriber requests repositories. Failed pages are retried
+ * with the same {@link GithubRetryPolicy} as the blocking client, the backoff waits on a timer as well.
+ * Page durations, errors, retries and pages per search are recorded under the same metrics as the blocking client.
+ * Partitioned searches are crawled by the blocking client on a bounded elastic thread.
+ */
+@Service
+public class WebClientGithubClient implements ReactiveGithubClient {
+    private final WebClient webClient;
+    private final int fetchConcurrency;
+    private final GithubTokenPool tokenPool;
+    private final GithubRetryPolicy retryPolicy;
+    private final GithubClient githubClient;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+
+    public WebClientGithubClient(@Qualifier("githubWebClient") WebClient webClient,
+                                 @Value("${github.fetch.concurrency:4}") int fetchConcurrency,
+                                 GithubTokenPool tokenPool, GithubRetryPolicy retryPolicy, GithubClient githubClient,
+                                 Clock clock, MeterRegistry meterRegistry) {
+        this.webClient = webClient;
+        this.fetchConcurrency = Math.max(1, fetchConcurrency);
+        this.tokenPool = tokenPool;
+        this.retryPolicy = retryPolicy;
+        this.githubClient = githubClient;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Flux<GithubRepository> getRepositories(GithubSearchParams searchParams) {
+        if (Boolean.TRUE.equals(searchParams.partitioned())) {
+            return Flux.defer(() -> Flux.fromIterable(githubClient.getRepositories(searchParams)))
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+        var query = GithubSearchQuery.of(searchParams);
+        var pageSize = searchParams.pageSize();
+        var cappedRequestCount = GithubSearchRequests.cappedRequestCount(searchParams, tokenPool);
+        return Flux.defer(() -> {
+            var retryBudget = retryPolicy.budget(cappedRequestCount, tokenPool);
+            var fetchedPages = new AtomicInteger();
+            var recorded = new AtomicBoolean();
+            // recorded before the terminal signal reaches the subscriber; a cancel may follow an error
+            Runnable recordPages = () -> {
+                if (recorded.compareAndSet(false, true)) {
+                    recordRequestPages(fetchedPages.get());
+                }
+            };
+            var responses = fetchPage(query, 1, pageSize, retryBudget).flatMapMany(firstResponse -> {
+                // calculate how many more pages need to be fetched, bounded to the capped request count
+                var totalPages = (int) Math.ceil((double) firstResponse.repoCount() / pageSize);
+                var pages = Math.min(cappedRequestCount, totalPages);
+                var remainingPages = Flux.range(2, Math.max(0, pages - 1))
+                        .flatMapSequential(page -> fetchPage(query, page, pageSize, retryBudget), fetchConcurrency, 1);
+                return Flux.concat(Mono.just(firstResponse), remainingPages);
+            });
+            return responses
+                    .doOnNext(response -> fetchedPages.incrementAndGet())
+                    .doOnTerminate(recordPages)
+                    .doOnCancel(recordPages);
+        }).concatMapIterable(GithubSearchResponse::repositories);
+    }
+
+    /**
+     * Fetches a single search page, retrying transient failures after a backoff while the search's budget allows it.
+     */
+    private Mono<GithubSearchResponse> fetchPage(String query, int page, int pageSize, GithubRetryPolicy.Budget retryBudget) {
+        return fetchPage(query, page, pageSize).retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+            var attempt = (int) signal.totalRetries() + 1;
+            if (signal.failure() instanceof RuntimeException failure
+                    && retryPolicy.shouldRetry(attempt, failure) && retryBudget.tryAcquire()) {
+                meterRegistry.counter(RateAwareGithubClient.RETRIES_METRIC, "type", failure.getClass().getSimpleName())
+                        .increment();
+                return Mono.delay(retryPolicy.backoff(attempt));
+            }
+            return Mono.error(signal.failure());
+        })));
+    }
+
+    /**
+     * Fetches a single search page once the token pool grants a permit, the permit is given back when the
+     * request completes, fails or is cancelled. Every subscription, i.e. every retry, waits for its permit from its
+     * own start. The duration of every page is recorded by outcome, failures are counted by exception type.
+     */
+    private Mono<GithubSearchResponse> fetchPage(String query, int page, int pageSize) {
+        return Mono.defer(() -> {
+            var sample = Timer.start(meterRegistry);
+            var recorded = new AtomicBoolean();
+            // recorded before the terminal signal reaches the subscriber; a cancel may follow an error
+            Consumer<String> recordOutcome = outcome -> {
+                if (recorded.compareAndSet(false, true)) {
+                    sample.stop(Timer.builder(RateAwareGithubClient.PAGE_FETCH_METRIC)
+                            .description("Duration of GitHub search page requests")
+                            .tag("outcome", outcome)
+                            .publishPercentileHistogram()
+                            .register(meterRegistry));
+                }
+            };
+            return sendPageRequest(query, page, pageSize, clock.instant())
+                    .doOnSuccess(response -> recordOutcome.accept("success"))
+                    .doOnError(e -> {
+                        var outcome = e.getClass().getSimpleName();
+                        if (e instanceof GithubApiException) {
+                            meterRegistry.counter(RateAwareGithubClient.ERRORS_METRIC, "type", outcome).increment();
+                        }
+                        recordOutcome.accept(outcome);
+                    })
+                    .doOnCancel(() -> recordOutcome.accept("cancelled"));
+        });
+    }
+
+    private Mono<GithubSearchResponse> sendPageRequest(String query, int page, int pageSize, Instant firstAttempt) {
+        return acquireToken(firstAttempt).flatMap(token -> webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/search/repositories")
+                        .queryParam("q", query)
+                        .queryParam("page", page)
+                        .queryParam("per_page", pageSize)
+                        .build())
+                .headers(token::authorize)
+                .retrieve()
+                .onStatus(GithubSearchRequests::isMappedError,
+                        response -> Mono.error(GithubSearchRequests.toException(response.statusCode(),
+                                response.headers().asHttpHeaders(), token, tokenPool)))
+                .toEntity(GithubSearchResponse.class)
+                .doOnNext(entity -> tokenPool.update(token, entity.getHeaders()))
+                .mapNotNull(ResponseEntity::getBody)
+                .doFinally(signal -> tokenPool.release(token)));
+    }
+
+    private void recordRequestPages(int pages) {
+        DistributionSummary.builder(RateAwareGithubClient.REQUEST_PAGES_METRIC)
+                .description("GitHub pages fetched per search")
+                .tag("mode", "reactive")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(pages);
+    }
+
+    /**
+     * Emits a token once a permit has been taken, retrying on a timer while the budget of every token is exhausted.
+     */
+    private Mono<GithubToken> acquireToken(Instant firstAttempt) {
+        return Mono.defer(() -> {
+            var permit = tokenPool.tryAcquire(firstAttempt);
+            return permit.token() != null ? Mono.just(permit.token())
+                    : Mono.delay(permit.retryAfter()).then(acquireToken(firstAttempt));
+        });
+    }
+}
@@ -0,0 +1,18 @@
+package com.redcare.github.popularity.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+public class ClockConfig {
+
+    /**
+     * Provides the clock used for time based decisions, so they can be tested with a fixed clock.
+     */
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+}
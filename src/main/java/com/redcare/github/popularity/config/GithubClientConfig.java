@@ -0,0 +1,54 @@
+package com.redcare.github.popularity.config;
+
+import com.redcare.github.popularity.client.CachingGithubClient;
+import com.redcare.github.popularity.client.CoalescingGithubClient;
+import com.redcare.github.popularity.client.GithubClient;
+import com.redcare.github.popularity.client.GraphqlGithubClient;
+import com.redcare.github.popularity.client.RateAwareGithubClient;
+import com.redcare.github.popularity.index.IndexedGithubClient;
+import com.redcare.github.popularity.index.RepositoryIndex;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+@Configuration
+public class GithubClientConfig {
+
+    /**
+     * Configures the GithubClient used by the application.
+     * Searches through the GraphQL client if {@code github.client=graphql}, otherwise through the rate aware REST client.
+     * Wraps the client so identical concurrent searches are coalesced and results are cached,
+     * unless coalescing or caching is disabled. When the repository index is enabled, searches for synced
+     * languages are answered from the index.
+     */
+    @Bean
+    @Primary
+    public GithubClient githubClient(RateAwareGithubClient rateAwareGithubClient,
+                                     ObjectProvider<GraphqlGithubClient> graphqlGithubClient,
+                                     ObjectProvider<RepositoryIndex> repositoryIndex,
+                                     @Value("${github.coalescing.enabled:true}") boolean coalescingEnabled,
+                                     @Value("${github.cache.enabled:true}") boolean cacheEnabled,
+                                     @Value("${github.cache.time-to-live:10m}") Duration timeToLive,
+                                     @Value("${github.cache.refresh-after:1m}") Duration refreshAfter,
+                                     @Value("${github.cache.maximum-repositories:100000}") long maximumRepositories) {
+        GithubClient githubClient = graphqlGithubClient.getIfAvailable();
+        if (githubClient == null) {
+            githubClient = rateAwareGithubClient;
+        }
+        if (coalescingEnabled) {
+            githubClient = new CoalescingGithubClient(githubClient);
+        }
+        if (cacheEnabled) {
+            githubClient = new CachingGithubClient(githubClient, timeToLive, refreshAfter, maximumRepositories);
+        }
+        var index = repositoryIndex.getIfAvailable();
+        if (index != null) {
+            githubClient = new IndexedGithubClient(index, githubClient);
+        }
+        return githubClient;
+    }
+}
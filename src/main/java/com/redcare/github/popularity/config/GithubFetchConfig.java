@@ -0,0 +1,22 @@
+package com.redcare.github.popularity.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class GithubFetchConfig {
+
+    /**
+     * Configures a bounded executor to fetch the pages of a GitHub search concurrently.
+     * The pool size caps the number of in-flight page requests across the whole application.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService githubFetchExecutor(@Value("${github.fetch.concurrency:4}") int concurrency) {
+        return Executors.newFixedThreadPool(Math.max(1, concurrency), new CustomizableThreadFactory("github-fetch-"));
+    }
+}
@@ -1,31 +1,67 @@
 package com.redcare.github.popularity.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @Configuration
 public class GithubRestClientConfig {
 
-    private final String accessToken;
+    private final String baseUrl;
+    private final HttpClient.Version httpVersion;
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final boolean compression;
 
-    public GithubRestClientConfig(@Value("${github.access-token:''}") String accessToken) {
-        this.accessToken = accessToken;
+    public GithubRestClientConfig(@Value("${github.api.base-url:https://api.github.com}") String baseUrl,
+                                  @Value("${github.http.version:HTTP_2}") HttpClient.Version httpVersion,
+                                  @Value("${github.http.connect-timeout:5s}") Duration connectTimeout,
+                                  @Value("${github.http.read-timeout:30s}") Duration readTimeout,
+                                  @Value("${github.http.compression:true}") boolean compression) {
+        this.baseUrl = baseUrl;
+        this.httpVersion = httpVersion;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.compression = compression;
     }
 
     /**
      * Configures a RestClient For GitHub requests.
-     * Will issue authenticated requests if an access token is provided at start-up.
+     * Access tokens are added per request by the clients, so requests can be spread over the token pool.
+     * The base URL can be pointed to GitHub Enterprise or a local stub.
+     * Responses are read with the application's object mapper, so search pages use the streaming deserializer.
+     * Requests are sent through one JDK HttpClient, which keeps connections alive and multiplexes concurrent page
+     * requests over a single HTTP/2 connection. Responses are requested gzip compressed unless compression is disabled.
+     * The JDK HttpClient has no setting for the size of its connection pool, it opens a connection per concurrent
+     * HTTP/1.1 request. Connections are bounded by the requests in flight instead: pages run on the fetch executor
+     * ({@code github.fetch.concurrency}) and the hedge pool ({@code github.hedging.concurrency}), only the first page
+     * of a search is sent from the calling thread.
      */
     @Bean
-    public RestClient restClient() {
+    public RestClient restClient(ObjectMapper objectMapper) {
+        var requestFactory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                .version(httpVersion)
+                .connectTimeout(connectTimeout)
+                .build());
+        requestFactory.setReadTimeout(readTimeout);
         var builder = RestClient.builder()
-                .baseUrl("https://api.github.com")
+                .requestFactory(requestFactory)
+                .baseUrl(baseUrl)
                 .defaultHeader("X-GitHub-Api-Version", "2022-11-28")
-                .defaultHeader("Accept", "application/vnd.github+json");
-        if (accessToken != null && !accessToken.isEmpty()) {
-            builder.defaultHeader("Authorization", "Bearer " + accessToken);
+                .defaultHeader("Accept", "application/vnd.github+json")
+                .messageConverters(converters -> converters.replaceAll(converter ->
+                        converter instanceof MappingJackson2HttpMessageConverter
+                                ? new MappingJackson2HttpMessageConverter(objectMapper)
+                                : converter));
+        if (compression) {
+            builder.requestInterceptor(new GzipResponseInterceptor());
         }
         return builder.build();
     }
@@ -0,0 +1,61 @@
+package com.redcare.github.popularity.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+
+@Configuration
+public class GithubWebClientConfig {
+    // a search page of 100 repositories takes about 650KB
+    private static final DataSize MAX_PAGE_SIZE = DataSize.ofMegabytes(16);
+
+    private final String baseUrl;
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final boolean compression;
+
+    public GithubWebClientConfig(@Value("${github.api.base-url:https://api.github.com}") String baseUrl,
+                                 @Value("${github.http.connect-timeout:5s}") Duration connectTimeout,
+                                 @Value("${github.http.read-timeout:30s}") Duration readTimeout,
+                                 @Value("${github.http.compression:true}") boolean compression) {
+        this.baseUrl = baseUrl;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.compression = compression;
+    }
+
+    /**
+     * Configures a non-blocking WebClient for GitHub requests, with the same headers, timeouts and compression as
+     * the RestClient. Requests run on the Reactor Netty event loop instead of a thread per request.
+     */
+    @Bean
+    public WebClient githubWebClient(ObjectMapper objectMapper) {
+        var httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout)
+                .compress(compression);
+        var builder = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .baseUrl(baseUrl)
+                .defaultHeader("X-GitHub-Api-Version", "2022-11-28")
+                .defaultHeader("Accept", "application/vnd.github+json")
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().maxInMemorySize((int) MAX_PAGE_SIZE.toBytes());
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper,
+                            MediaType.APPLICATION_JSON, new MediaType("application", "*+json")));
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                });
+        return builder.build();
+    }
+}
@@ -1,22 +1,67 @@
 package com.redcare.github.popularity.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.redcare.github.popularity.client.GithubSearchResponse;
+import com.redcare.github.popularity.client.GithubSearchResponseDeserializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
 @Configuration
 public class JacksonConfig {
 
     /**
      * Enables Jackson object mapper to map GitHub's incoming date type.
+     * GitHub search pages are read by a streaming deserializer that skips all unused fields.
      */
     @Bean
     @Primary
     public ObjectMapper objectMapper() {
-        var objectMapper = new ObjectMapper();
+        return configure(new ObjectMapper());
+    }
+
+    /**
+     * Writes responses as binary Smile for {@code Accept: application/x-jackson-smile}, with the same modules as JSON.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(smileObjectMapper());
+    }
+
+    /**
+     * Writes responses as binary CBOR for {@code Accept: application/cbor}, with the same modules as JSON.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(cborObjectMapper());
+    }
+
+    public static ObjectMapper smileObjectMapper() {
+        return configure(new ObjectMapper(new SmileFactory()));
+    }
+
+    public static ObjectMapper cborObjectMapper() {
+        return configure(new ObjectMapper(new CBORFactory()));
+    }
+
+    private static ObjectMapper configure(ObjectMapper objectMapper) {
         objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.registerModule(githubSearchModule());
         return objectMapper;
     }
+
+    /**
+     * Registers the streaming deserializer for GitHub search pages.
+     */
+    public static SimpleModule githubSearchModule() {
+        var module = new SimpleModule("GithubSearchModule");
+        module.addDeserializer(GithubSearchResponse.class, new GithubSearchResponseDeserializer());
+        return module;
+    }
 }
@@ -0,0 +1,204 @@
+package com.redcare.github.popularity.config;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.RepositoryPage;
+import com.redcare.github.popularity.model.ScoredGithubRepository;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Writes scored repositories as Protobuf for {@code Accept: application/x-protobuf}, following the schema in
+ * {@code proto/scored_repository.proto}. The messages are encoded straight from the records, so no generated
+ * message classes are built for a response.
+ * A list of scored repositories is written as {@code ScoredGithubRepositories}, a {@link RepositoryPage} as
+ * {@code RepositoryPage}. Other bodies, e.g. error responses, fall back to the remaining converters.
+ */
+public class ScoredRepositoryProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    // field numbers of proto/scored_repository.proto
+    private static final int REPOSITORIES = 1;
+    private static final int PAGE_NEXT_CURSOR = 2;
+    private static final int PAGE_TOTAL = 3;
+    private static final int PAGE_EXPIRES_AT = 4;
+    private static final int SCORED_REPOSITORY = 1;
+    private static final int SCORED_POPULARITY_SCORE = 2;
+    private static final int REPOSITORY_ID = 1;
+    private static final int REPOSITORY_NAME = 2;
+    private static final int REPOSITORY_URL = 3;
+    private static final int REPOSITORY_CREATED_AT = 4;
+    private static final int REPOSITORY_PUSHED_AT = 5;
+    private static final int REPOSITORY_STARS_COUNT = 6;
+    private static final int REPOSITORY_FORKS_COUNT = 7;
+    private static final int REPOSITORY_LANGUAGE = 8;
+
+    public ScoredRepositoryProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return RepositoryPage.class.isAssignableFrom(clazz) || Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        if (RepositoryPage.class.isAssignableFrom(clazz)) {
+            return true;
+        }
+        // only collections declared to hold scored repositories, an empty list carries no element to look at
+        var resolvedType = ResolvableType.forType(type != null ? type : clazz);
+        return resolvedType.asCollection() != ResolvableType.NONE
+                && ScoredGithubRepository.class.equals(resolvedType.asCollection().resolveGeneric(0));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        var output = CodedOutputStream.newInstance(outputMessage.getBody());
+        if (body instanceof RepositoryPage page) {
+            writePage(output, page);
+        } else {
+            writeRepositories(output, (Collection<ScoredGithubRepository>) body);
+        }
+        output.flush();
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    private static void writePage(CodedOutputStream output, RepositoryPage page) throws IOException {
+        writeRepositories(output, page.repositories());
+        if (page.nextCursor() != null) {
+            output.writeString(PAGE_NEXT_CURSOR, page.nextCursor());
+        }
+        if (page.total() != 0) {
+            output.writeInt32(PAGE_TOTAL, page.total());
+        }
+        if (page.expiresAt() != null) {
+            output.writeInt64(PAGE_EXPIRES_AT, page.expiresAt().toEpochMilli());
+        }
+    }
+
+    private static void writeRepositories(CodedOutputStream output, Collection<ScoredGithubRepository> repositories)
+            throws IOException {
+        for (var scored : repositories) {
+            // nested messages are prefixed with their length, the repository's is computed once for both levels
+            var repositorySize = scored.repository() == null ? 0 : repositorySize(scored.repository());
+            output.writeTag(REPOSITORIES, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(scoredSize(scored, repositorySize));
+            writeScored(output, scored, repositorySize);
+        }
+    }
+
+    private static void writeScored(CodedOutputStream output, ScoredGithubRepository scored, int repositorySize)
+            throws IOException {
+        var repository = scored.repository();
+        if (repository != null) {
+            output.writeTag(SCORED_REPOSITORY, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(repositorySize);
+            writeRepository(output, repository);
+        }
+        if (scored.popularityScore() != 0) {
+            output.writeDouble(SCORED_POPULARITY_SCORE, scored.popularityScore());
+        }
+    }
+
+    private static void writeRepository(CodedOutputStream output, GithubRepository repository) throws IOException {
+        // proto3 leaves out scalar defaults, optional fields are written whenever they are present
+        if (repository.id() != 0) {
+            output.writeInt64(REPOSITORY_ID, repository.id());
+        }
+        if (repository.name() != null && !repository.name().isEmpty()) {
+            output.writeString(REPOSITORY_NAME, repository.name());
+        }
+        if (repository.url() != null) {
+            output.writeString(REPOSITORY_URL, repository.url());
+        }
+        if (repository.createdAt() != null) {
+            output.writeInt64(REPOSITORY_CREATED_AT, repository.createdAt().toEpochMilli());
+        }
+        if (repository.pushedAt() != null) {
+            output.writeInt64(REPOSITORY_PUSHED_AT, repository.pushedAt().toEpochMilli());
+        }
+        if (repository.starsCount() != 0) {
+            output.writeInt32(REPOSITORY_STARS_COUNT, repository.starsCount());
+        }
+        if (repository.forksCount() != 0) {
+            output.writeInt32(REPOSITORY_FORKS_COUNT, repository.forksCount());
+        }
+        if (repository.language() != null) {
+            output.writeString(REPOSITORY_LANGUAGE, repository.language());
+        }
+    }
+
+    private static int scoredSize(ScoredGithubRepository scored, int repositorySize) {
+        var size = 0;
+        if (scored.repository() != null) {
+            size += CodedOutputStream.computeTagSize(SCORED_REPOSITORY)
+                    + CodedOutputStream.computeUInt32SizeNoTag(repositorySize)
+                    + repositorySize;
+        }
+        if (scored.popularityScore() != 0) {
+            size += CodedOutputStream.computeDoubleSize(SCORED_POPULARITY_SCORE, scored.popularityScore());
+        }
+        return size;
+    }
+
+    private static int repositorySize(GithubRepository repository) {
+        var size = 0;
+        if (repository.id() != 0) {
+            size += CodedOutputStream.computeInt64Size(REPOSITORY_ID, repository.id());
+        }
+        if (repository.name() != null && !repository.name().isEmpty()) {
+            size += CodedOutputStream.computeStringSize(REPOSITORY_NAME, repository.name());
+        }
+        if (repository.url() != null) {
+            size += CodedOutputStream.computeStringSize(REPOSITORY_URL, repository.url());
+        }
+        size += timestampSize(REPOSITORY_CREATED_AT, repository.createdAt());
+        size += timestampSize(REPOSITORY_PUSHED_AT, repository.pushedAt());
+        if (repository.starsCount() != 0) {
+            size += CodedOutputStream.computeInt32Size(REPOSITORY_STARS_COUNT, repository.starsCount());
+        }
+        if (repository.forksCount() != 0) {
+            size += CodedOutputStream.computeInt32Size(REPOSITORY_FORKS_COUNT, repository.forksCount());
+        }
+        if (repository.language() != null) {
+            size += CodedOutputStream.computeStringSize(REPOSITORY_LANGUAGE, repository.language());
+        }
+        return size;
+    }
+
+    private static int timestampSize(int field, @Nullable Instant timestamp) {
+        return timestamp == null ? 0 : CodedOutputStream.computeInt64Size(field, timestamp.toEpochMilli());
+    }
+}
@@ -0,0 +1,31 @@
+package com.redcare.github.popularity.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /**
+     * Appends the Protobuf converter after the JSON one, so clients that accept any type keep receiving JSON.
+     * The JSON converter also writes NDJSON, so a rejected streaming request still gets its error as a single line.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (var converter : converters) {
+            if (converter instanceof MappingJackson2HttpMessageConverter jsonConverter
+                    && !jsonConverter.getSupportedMediaTypes().contains(MediaType.APPLICATION_NDJSON)) {
+                var mediaTypes = new ArrayList<>(jsonConverter.getSupportedMediaTypes());
+                mediaTypes.add(MediaType.APPLICATION_NDJSON);
+                jsonConverter.setSupportedMediaTypes(mediaTypes);
+            }
+        }
+        converters.add(new ScoredRepositoryProtobufHttpMessageConverter());
+    }
+}
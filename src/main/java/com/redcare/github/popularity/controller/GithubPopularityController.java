@@ -1,29 +1,55 @@
 package com.redcare.github.popularity.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redcare.github.popularity.model.GithubSearchParams;
+import com.redcare.github.popularity.model.RepositoryPage;
 import com.redcare.github.popularity.model.ScoredGithubRepository;
 import com.redcare.github.popularity.services.GithubRepositoryService;
+import com.redcare.github.popularity.services.RepositorySnapshots;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
-@RequiredArgsConstructor
 @RequestMapping("api/v1")
 @Tag(name = "GitHub Repository Popularity", description = "API to retrieve GitHub repositories with popularity scores")
 public class GithubPopularityController {
 
+    private static final byte LINE_SEPARATOR = '\n';
+
     private final GithubRepositoryService repositoryService;
+    private final RepositorySnapshots repositorySnapshots;
+    private final ObjectMapper objectMapper;
+    private final Timer serializationTimer;
+
+    public GithubPopularityController(GithubRepositoryService repositoryService, RepositorySnapshots repositorySnapshots,
+                                      ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.repositoryService = repositoryService;
+        this.repositorySnapshots = repositorySnapshots;
+        this.objectMapper = objectMapper;
+        this.serializationTimer = Timer.builder("popularity.serialization")
+                .description("Duration of writing one page of scored repositories as NDJSON")
+                .register(meterRegistry);
+    }
 
     /**
      * Retrieves GitHub repositories with their calculated popularity scores based on the provided search parameters.
@@ -65,4 +91,131 @@ public class GithubPopularityController {
             return ResponseEntity.ok(result);
         }
     }
+
+    /**
+     * Streams GitHub repositories with their calculated popularity scores as newline delimited JSON.
+     * Each page is scored and flushed to the client as soon as it has been fetched from GitHub.
+     *
+     * @param searchParams The parameters to filter GitHub repositories, including language, earliest creation date,
+     *                     and pagination options
+     * @return A ResponseEntity streaming one scored GitHub repository per line
+     */
+    @Operation(
+            summary = "Stream GitHub repositories with popularity scores",
+            description = "Same as the JSON variant, but emits one scored repository per line as soon as its page has been fetched from GitHub"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully started streaming repositories",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = ScoredGithubRepository.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid input parameters",
+                    content = @Content
+            )
+    })
+    @GetMapping(value = "/repositories", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamRepositoriesWithPopularityScore(GithubSearchParams searchParams) {
+        // resolve the profile on the request thread, once the body streams the status can't turn into 400 anymore
+        var pages = repositoryService.streamRepositoriesWithPopularityScore(searchParams);
+        StreamingResponseBody body = outputStream -> pages.forEachPage(page -> writePage(outputStream, page));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Retrieves GitHub repositories with their calculated popularity scores without holding a request thread while
+     * GitHub pages are fetched. With {@code Accept: application/x-ndjson} repositories are written as they are scored
+     * and only requested from GitHub as fast as the client reads them.
+     *
+     * @param searchParams The parameters to filter GitHub repositories, including language, earliest creation date,
+     *                     and pagination options
+     * @return A flux of GitHub repositories with their popularity scores
+     */
+    @Operation(
+            summary = "Get GitHub repositories with popularity scores reactively",
+            description = "Same as the blocking variant, but GitHub pages are fetched without blocking a request thread"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved repositories",
+                    content = {
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = ScoredGithubRepository.class)),
+                            @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = ScoredGithubRepository.class))
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid input parameters",
+                    content = @Content
+            )
+    })
+    @GetMapping(value = "/reactive/repositories", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ScoredGithubRepository> getRepositoriesWithPopularityScoreReactive(GithubSearchParams searchParams) {
+        return repositoryService.getRepositoriesWithPopularityScoreReactive(searchParams);
+    }
+
+    /**
+     * Retrieves GitHub repositories with their popularity scores one page at a time. A request without a cursor
+     * crawls and scores the result into a snapshot kept on the server, requests with the cursor of a page read the
+     * next page from that snapshot without calling GitHub.
+     *
+     * @param searchParams The parameters to filter GitHub repositories, ignored when a cursor is passed
+     * @param cursor       The cursor of the previous page, absent for the first page
+     * @param size         The number of repositories per page
+     * @return A ResponseEntity containing one page of scored repositories and the cursor of the next page
+     */
+    @Operation(
+            summary = "Page through GitHub repositories with popularity scores",
+            description = "The first request builds a scored snapshot of the result and returns its first page with an opaque cursor. Requests with the cursor read the following pages from the snapshot until it expires."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved a page of repositories",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = RepositoryPage.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid input parameters or cursor",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "410",
+                    description = "The snapshot of the cursor has expired",
+                    content = @Content
+            )
+    })
+    @GetMapping("/repositories/pages")
+    public ResponseEntity<RepositoryPage> getRepositoryPage(
+            GithubSearchParams searchParams,
+            @Parameter(description = "Cursor of the previous page, omit it for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Repositories per page (1-100), defaults to 25 or the size of the previous page")
+            @RequestParam(required = false) Integer size) {
+        var page = cursor == null || cursor.isBlank()
+                ? repositorySnapshots.firstPage(searchParams, size)
+                : repositorySnapshots.nextPage(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    private void writePage(OutputStream outputStream, List<ScoredGithubRepository> page) {
+        serializationTimer.record(() -> writeAndFlush(outputStream, page));
+    }
+
+    private void writeAndFlush(OutputStream outputStream, List<ScoredGithubRepository> page) {
+        try {
+            for (var repository : page) {
+                outputStream.write(objectMapper.writeValueAsBytes(repository));
+                outputStream.write(LINE_SEPARATOR);
+            }
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
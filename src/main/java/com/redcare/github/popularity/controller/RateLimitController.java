@@ -0,0 +1,65 @@
+package com.redcare.github.popularity.controller;
+
+import com.redcare.github.popularity.client.GithubTokenPool;
+import com.redcare.github.popularity.model.GithubTokenUsage;
+import com.redcare.github.popularity.model.RateLimitStatus;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("api/v1")
+@Tag(name = "GitHub Rate Limit", description = "API to inspect the GitHub search rate budget of the application")
+public class RateLimitController {
+
+    private final GithubTokenPool tokenPool;
+
+    /**
+     * Retrieves the GitHub search rate budget shared by all requests of the application, summed over all tokens.
+     *
+     * @return A ResponseEntity containing the current rate limit status
+     */
+    @Operation(
+            summary = "Get the GitHub rate limit status",
+            description = "Retrieves the remaining GitHub search budget, the number of requests in flight and when the budget resets"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the rate limit status",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = RateLimitStatus.class))
+    )
+    @GetMapping("/rate-limit")
+    public ResponseEntity<RateLimitStatus> getRateLimitStatus() {
+        return ResponseEntity.ok(tokenPool.getStatus());
+    }
+
+    /**
+     * Retrieves the rate budget and usage of every access token in the pool.
+     *
+     * @return A ResponseEntity containing the usage of each token
+     */
+    @Operation(
+            summary = "Get the usage of each GitHub access token",
+            description = "Retrieves the rate budget, cool-down and request counts of every token in the pool, without the tokens themselves"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the token usage",
+            content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = GithubTokenUsage.class)))
+    )
+    @GetMapping("/rate-limit/tokens")
+    public ResponseEntity<List<GithubTokenUsage>> getTokenUsage() {
+        return ResponseEntity.ok(tokenPool.getUsage());
+    }
+}
@@ -0,0 +1,143 @@
+package com.redcare.github.popularity.domain;
+
+import java.util.Locale;
+
+/**
+ * Popularity scorer compiled from a {@link ScoringProfile}. All parameters are resolved into final primitive fields
+ * once, and each decay curve is its own subclass, so the scoring loop neither boxes nor looks anything up.
+ * Language boosts are resolved with a linear scan over the few boosted languages, which are trimmed and lower-cased
+ * once here and compared ignoring case, since GitHub reports languages capitalized.
+ */
+abstract sealed class CompiledPopularityScorer implements PopularityScorer {
+    private final double starWeight;
+    private final double forkWeight;
+    private final double maxRawScore;
+    private final double minScore;
+    private final double scoreRange;
+    private final double maxScore;
+    private final double roundingScale;
+    private final String[] boostedLanguages;
+    private final double[] languageBoosts;
+
+    CompiledPopularityScorer(ScoringProfile profile) {
+        this.starWeight = profile.starWeight();
+        this.forkWeight = profile.forkWeight();
+        this.maxRawScore = profile.starCap() * profile.starWeight() + profile.forkCap() * profile.forkWeight();
+        this.minScore = profile.minScore();
+        this.scoreRange = profile.maxScore() - profile.minScore();
+        this.maxScore = profile.maxScore();
+        this.roundingScale = Math.pow(10, profile.decimals());
+        var boosts = profile.languageBoosts().entrySet().stream().toList();
+        this.boostedLanguages = new String[boosts.size()];
+        this.languageBoosts = new double[boosts.size()];
+        for (var i = 0; i < boosts.size(); i++) {
+            boostedLanguages[i] = boosts.get(i).getKey().trim().toLowerCase(Locale.ROOT);
+            languageBoosts[i] = boosts.get(i).getValue();
+        }
+    }
+
+    /**
+     * Applies the decay curve of the profile to the weighted stars and forks.
+     */
+    abstract double decay(double weightedScore, int daysSinceUpdate);
+
+    @Override
+    public double calculateScore(int starCount, int forkCount, int daysSinceUpdate) {
+        return normalize(decay(starWeight * starCount + forkWeight * forkCount, daysSinceUpdate));
+    }
+
+    @Override
+    public double calculateScore(int starCount, int forkCount, int daysSinceUpdate, String language) {
+        return normalize(decay(starWeight * starCount + forkWeight * forkCount, daysSinceUpdate) * getLanguageBoost(language));
+    }
+
+    @Override
+    public void calculateScores(int[] starCounts, int[] forkCounts, int[] daysSinceUpdate, double[] scores) {
+        checkColumns(starCounts.length, forkCounts.length, daysSinceUpdate.length, scores.length);
+        for (var i = 0; i < scores.length; i++) {
+            scores[i] = normalize(decay(starWeight * starCounts[i] + forkWeight * forkCounts[i], daysSinceUpdate[i]));
+        }
+    }
+
+    @Override
+    public void calculateScores(int[] starCounts, int[] forkCounts, int[] daysSinceUpdate, String[] languages, double[] scores) {
+        if (boostedLanguages.length == 0) {
+            calculateScores(starCounts, forkCounts, daysSinceUpdate, scores);
+            return;
+        }
+        checkColumns(starCounts.length, forkCounts.length, daysSinceUpdate.length, scores.length);
+        if (languages.length < scores.length) {
+            throw new IllegalArgumentException("Every column needs a value for each of the " + scores.length + " scores");
+        }
+        for (var i = 0; i < scores.length; i++) {
+            var weightedScore = starWeight * starCounts[i] + forkWeight * forkCounts[i];
+            scores[i] = normalize(decay(weightedScore, daysSinceUpdate[i]) * getLanguageBoost(languages[i]));
+        }
+    }
+
+    private double normalize(double rawScore) {
+        // bound to zero, normalize into the score range and bound to the max score
+        var score = minScore + (Math.max(0.0, rawScore) / maxRawScore) * scoreRange;
+        score = Math.min(score, maxScore);
+        return Math.round(score * roundingScale) / roundingScale;
+    }
+
+    private double getLanguageBoost(String language) {
+        if (language == null) {
+            return 1.0;
+        }
+        for (var i = 0; i < boostedLanguages.length; i++) {
+            if (boostedLanguages[i].equalsIgnoreCase(language)) {
+                return languageBoosts[i];
+            }
+        }
+        return 1.0;
+    }
+
+    private static void checkColumns(int starCounts, int forkCounts, int daysSinceUpdate, int scores) {
+        if (starCounts < scores || forkCounts < scores || daysSinceUpdate < scores) {
+            throw new IllegalArgumentException("Every column needs a value for each of the " + scores + " scores");
+        }
+    }
+
+    /**
+     * Subtracts a fixed penalty per day since the last update, up to a maximum number of days.
+     */
+    static final class LinearDecay extends CompiledPopularityScorer {
+        private final double penaltyPerDay;
+        private final int penaltyDaysCap;
+
+        LinearDecay(ScoringProfile profile) {
+            super(profile);
+            this.penaltyPerDay = profile.penaltyPerDay();
+            this.penaltyDaysCap = profile.penaltyDaysCap();
+        }
+
+        @Override
+        double decay(double weightedScore, int daysSinceUpdate) {
+            return weightedScore - Math.min(daysSinceUpdate, penaltyDaysCap) * penaltyPerDay;
+        }
+
+        @Override
+        public int getDaysSinceUpdateCap() {
+            return penaltyDaysCap;
+        }
+    }
+
+    /**
+     * Halves the score every half-life since the last update.
+     */
+    static final class ExponentialDecay extends CompiledPopularityScorer {
+        private final double decayRate;
+
+        ExponentialDecay(ScoringProfile profile) {
+            super(profile);
+            this.decayRate = Math.log(2) / profile.halfLifeDays();
+        }
+
+        @Override
+        double decay(double weightedScore, int daysSinceUpdate) {
+            return weightedScore * Math.exp(-decayRate * Math.max(0, daysSinceUpdate));
+        }
+    }
+}
@@ -13,4 +13,52 @@ public interface PopularityScorer {
      * @return A normalized popularity score between 0.0 and 5.0, with higher values indicating greater popularity
      */
     double calculateScore(int starCount, int forkCount, int daysSinceUpdate);
+
+    /**
+     * Calculates a popularity score like {@link #calculateScore(int, int, int)} for formulas that also weigh the
+     * programming language of a repository. Ignores the language by default.
+     *
+     * @param starCount       The number of stars the repository has received
+     * @param forkCount       The number of times the repository has been forked
+     * @param daysSinceUpdate The number of days since the repository was last updated
+     * @param language        The programming language of the repository, may be null
+     * @return A normalized popularity score, with higher values indicating greater popularity
+     */
+    default double calculateScore(int starCount, int forkCount, int daysSinceUpdate, String language) {
+        return calculateScore(starCount, forkCount, daysSinceUpdate);
+    }
+
+    /**
+     * Calculates the popularity scores of many repositories at once. The repositories are given as columns, the score
+     * of the repository at index i is written to {@code scores[i]} and equals
+     * {@link #calculateScore(int, int, int)} of the i-th star count, fork count and days since update.
+     *
+     * @param starCounts      The number of stars of each repository
+     * @param forkCounts      The number of forks of each repository
+     * @param daysSinceUpdate The number of days since each repository was last updated
+     * @param scores          Receives the scores, its length is the number of repositories to score
+     */
+    default void calculateScores(int[] starCounts, int[] forkCounts, int[] daysSinceUpdate, double[] scores) {
+        for (var i = 0; i < scores.length; i++) {
+            scores[i] = calculateScore(starCounts[i], forkCounts[i], daysSinceUpdate[i]);
+        }
+    }
+
+    /**
+     * Calculates the popularity scores of many repositories at once like
+     * {@link #calculateScores(int[], int[], int[], double[])}, with the programming language of each repository
+     * as an additional column. Ignores the languages by default.
+     */
+    default void calculateScores(int[] starCounts, int[] forkCounts, int[] daysSinceUpdate, String[] languages, double[] scores) {
+        calculateScores(starCounts, forkCounts, daysSinceUpdate, scores);
+    }
+
+    /**
+     * @return The number of days since the last update after which a score no longer changes as days pass,
+     * {@link Integer#MAX_VALUE} if scores keep changing. Repositories updated longer ago don't need to be rescored
+     * when the day changes.
+     */
+    default int getDaysSinceUpdateCap() {
+        return Integer.MAX_VALUE;
+    }
 }
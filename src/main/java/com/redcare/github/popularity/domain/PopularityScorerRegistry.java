@@ -0,0 +1,55 @@
+package com.redcare.github.popularity.domain;
+
+import com.redcare.github.popularity.exception.UnknownScoringProfileException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Holds a {@link PopularityScorer} per scoring profile. The configured profiles are compiled once at start-up,
+ * the {@code simple} profile is the hand-written {@link SimplePopularityScorer} unless it is configured explicitly.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(ScoringProperties.class)
+public class PopularityScorerRegistry {
+    public static final String SIMPLE_PROFILE = "simple";
+
+    private final Map<String, PopularityScorer> scorers = new HashMap<>();
+    private final PopularityScorer defaultScorer;
+
+    public PopularityScorerRegistry(SimplePopularityScorer simplePopularityScorer, ScoringProperties scoringProperties) {
+        scorers.put(SIMPLE_PROFILE, simplePopularityScorer);
+        scoringProperties.profiles().forEach((name, profile) -> scorers.put(normalize(name), profile.compile()));
+        var defaultProfile = normalize(scoringProperties.defaultProfile());
+        if (!scorers.containsKey(defaultProfile)) {
+            throw new IllegalStateException("Default scoring profile " + defaultProfile + " is not configured");
+        }
+        this.defaultScorer = scorers.get(defaultProfile);
+        log.info("Scoring profiles {}, default {}", scorers.keySet(), defaultProfile);
+    }
+
+    /**
+     * @param profile The name of the scoring profile, compared case-insensitively, null or blank for the default
+     * @return The scorer of the profile
+     * @throws UnknownScoringProfileException if no such profile is configured
+     */
+    public PopularityScorer get(String profile) {
+        if (profile == null || profile.isBlank()) {
+            return defaultScorer;
+        }
+        var scorer = scorers.get(normalize(profile));
+        if (scorer == null) {
+            throw new UnknownScoringProfileException("Unknown scoring profile: " + profile);
+        }
+        return scorer;
+    }
+
+    private static String normalize(String profile) {
+        return profile.trim().toLowerCase(Locale.ROOT);
+    }
+}
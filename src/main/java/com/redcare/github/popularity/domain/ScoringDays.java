@@ -0,0 +1,31 @@
+package com.redcare.github.popularity.domain;
+
+import java.time.Instant;
+
+/**
+ * Days since the last update are counted in UTC calendar days, so the scores of all repositories change at the same
+ * instant, midnight UTC, and stay valid for the rest of the day.
+ */
+public final class ScoringDays {
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private ScoringDays() {
+    }
+
+    public static long epochDay(Instant instant) {
+        return epochDay(instant.getEpochSecond());
+    }
+
+    public static long epochDay(long epochSecond) {
+        return Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+    }
+
+    /**
+     * @param updatedAt The epoch second of the last update
+     * @param today     The current epoch day
+     * @return The number of calendar days since the update, bounded to the int range
+     */
+    public static int daysSinceUpdate(long updatedAt, long today) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, today - epochDay(updatedAt)));
+    }
+}
@@ -0,0 +1,75 @@
+package com.redcare.github.popularity.domain;
+
+import java.util.Map;
+
+/**
+ * Configurable popularity formula. Unset values default to the formula of {@link SimplePopularityScorer}.
+ *
+ * @param starWeight           Weight of a star
+ * @param forkWeight           Weight of a fork
+ * @param starCap              Star count that, together with the fork cap, reaches the maximum score
+ * @param forkCap              Fork count that, together with the star cap, reaches the maximum score
+ * @param decay                How the days since the last update lower the score
+ * @param penaltyPerDay        Linear decay: points subtracted per day since the last update
+ * @param penaltyDaysCap       Linear decay: days after which the penalty no longer grows
+ * @param halfLifeDays         Exponential decay: days after which the score is halved
+ * @param minScore             Lower bound of the normalized score
+ * @param maxScore             Upper bound of the normalized score
+ * @param decimals             Decimal places the score is rounded to
+ * @param languageBoosts       Factors applied to the raw score of repositories by language, compared case-insensitively
+ */
+public record ScoringProfile(
+        Double starWeight,
+        Double forkWeight,
+        Integer starCap,
+        Integer forkCap,
+        Decay decay,
+        Double penaltyPerDay,
+        Integer penaltyDaysCap,
+        Double halfLifeDays,
+        Double minScore,
+        Double maxScore,
+        Integer decimals,
+        Map<String, Double> languageBoosts
+) {
+    public enum Decay {
+        LINEAR,
+        EXPONENTIAL
+    }
+
+    public ScoringProfile {
+        starWeight = starWeight == null ? 1.0 : starWeight;
+        forkWeight = forkWeight == null ? 1.5 : forkWeight;
+        starCap = starCap == null ? 10000 : starCap;
+        forkCap = forkCap == null ? 1000 : forkCap;
+        decay = decay == null ? Decay.LINEAR : decay;
+        penaltyPerDay = penaltyPerDay == null ? 0.05 : penaltyPerDay;
+        penaltyDaysCap = penaltyDaysCap == null ? 365 : penaltyDaysCap;
+        halfLifeDays = halfLifeDays == null ? 365.0 : halfLifeDays;
+        minScore = minScore == null ? 0.0 : minScore;
+        maxScore = maxScore == null ? 5.0 : maxScore;
+        decimals = decimals == null ? 2 : decimals;
+        languageBoosts = languageBoosts == null ? Map.of() : Map.copyOf(languageBoosts);
+        if (starCap * starWeight + forkCap * forkWeight <= 0) {
+            throw new IllegalArgumentException("Star and fork caps must allow a positive raw score");
+        }
+        if (maxScore < minScore) {
+            throw new IllegalArgumentException("Maximum score must not be below the minimum score");
+        }
+        if (halfLifeDays <= 0) {
+            throw new IllegalArgumentException("Half-life must be positive");
+        }
+        if (decimals < 0) {
+            throw new IllegalArgumentException("Decimals must not be negative");
+        }
+    }
+
+    /**
+     * Compiles the profile into a scorer that only reads primitive fields while scoring.
+     */
+    public PopularityScorer compile() {
+        return decay == Decay.EXPONENTIAL
+                ? new CompiledPopularityScorer.ExponentialDecay(this)
+                : new CompiledPopularityScorer.LinearDecay(this);
+    }
+}
@@ -0,0 +1,20 @@
+package com.redcare.github.popularity.domain;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Scoring profiles configured under {@code popularity.scoring}.
+ *
+ * @param defaultProfile The profile used when a request does not select one
+ * @param profiles       Popularity formulas by profile name, in addition to the built-in {@code simple} profile
+ */
+@ConfigurationProperties(prefix = "popularity.scoring")
+public record ScoringProperties(String defaultProfile, Map<String, ScoringProfile> profiles) {
+
+    public ScoringProperties {
+        defaultProfile = defaultProfile == null || defaultProfile.isBlank() ? PopularityScorerRegistry.SIMPLE_PROFILE : defaultProfile;
+        profiles = profiles == null ? Map.of() : Map.copyOf(profiles);
+    }
+}
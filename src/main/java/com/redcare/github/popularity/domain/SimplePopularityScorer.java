@@ -37,6 +37,35 @@ public class SimplePopularityScorer implements PopularityScorer {
      */
     @Override
     public double calculateScore(int starCount, int forkCount, int daysSinceUpdate) {
+        return score(starCount, forkCount, daysSinceUpdate);
+    }
+
+    @Override
+    public int getDaysSinceUpdateCap() {
+        return UPDATE_PENALTY_DAYS_CAP;
+    }
+
+    /**
+     * Calculates the scores of many repositories in one loop over primitive columns, without a virtual call or
+     * boxing per repository. The rounding to two decimals goes through a long, which keeps the loop scalar.
+     *
+     * @param starCounts      The number of stars of each repository
+     * @param forkCounts      The number of forks of each repository
+     * @param daysSinceUpdate The number of days since each repository was last updated
+     * @param scores          Receives the scores, its length is the number of repositories to score
+     */
+    @Override
+    public void calculateScores(int[] starCounts, int[] forkCounts, int[] daysSinceUpdate, double[] scores) {
+        var length = scores.length;
+        if (starCounts.length < length || forkCounts.length < length || daysSinceUpdate.length < length) {
+            throw new IllegalArgumentException("Every column needs a value for each of the " + length + " scores");
+        }
+        for (var i = 0; i < length; i++) {
+            scores[i] = score(starCounts[i], forkCounts[i], daysSinceUpdate[i]);
+        }
+    }
+
+    private static double score(int starCount, int forkCount, int daysSinceUpdate) {
         var cappedDays = Math.min(daysSinceUpdate, UPDATE_PENALTY_DAYS_CAP);
         var score = STAR_WEIGHT * starCount + FORK_WEIGHT * forkCount - cappedDays * UPDATE_PENALTY_PER_DAY;
         // bound to min normalized score
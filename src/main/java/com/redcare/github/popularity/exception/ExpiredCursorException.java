@@ -0,0 +1,7 @@
+package com.redcare.github.popularity.exception;
+
+public class ExpiredCursorException extends RuntimeException {
+    public ExpiredCursorException(String message) {
+        super(message);
+    }
+}
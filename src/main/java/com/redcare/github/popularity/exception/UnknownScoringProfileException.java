@@ -0,0 +1,7 @@
+package com.redcare.github.popularity.exception;
+
+public class UnknownScoringProfileException extends RuntimeException {
+    public UnknownScoringProfileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.redcare.github.popularity.exception;
+
+public class UnsupportedSearchException extends RuntimeException {
+    public UnsupportedSearchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.redcare.github.popularity.exception.client;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * GitHub rejected the configured access token with 401, it is revoked or invalid. Answered with 502, the caller of
+ * this API can't fix it.
+ */
+public class GithubAuthenticationException extends GithubApiException {
+    // whether another token of the pool may still be used for a retry
+    @Getter
+    private final boolean otherTokenAvailable;
+
+    public GithubAuthenticationException(String message, boolean otherTokenAvailable) {
+        super(HttpStatus.BAD_GATEWAY, message);
+        this.otherTokenAvailable = otherTokenAvailable;
+    }
+}
@@ -0,0 +1,60 @@
+package com.redcare.github.popularity.index;
+
+import com.redcare.github.popularity.client.GithubClient;
+import com.redcare.github.popularity.client.GithubPageConsumer;
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.GithubSearchParams;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Answers searches that ask for {@code source=index} from the local {@link RepositoryIndex} and passes everything
+ * else to the delegate {@link GithubClient}, including indexed searches for languages whose first sync has not caught
+ * up yet. Index results are ordered by stars instead of GitHub's best match, only cover the repositories pushed to
+ * since the initial lookback and are limited to the requested number of pages.
+ */
+public class IndexedGithubClient implements GithubClient {
+
+    private final RepositoryIndex repositoryIndex;
+    private final GithubClient delegate;
+
+    public IndexedGithubClient(RepositoryIndex repositoryIndex, GithubClient delegate) {
+        this.repositoryIndex = repositoryIndex;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Retrieves GitHub repositories from the index if it was asked for and their language has been synced,
+     * otherwise from GitHub.
+     *
+     * @param searchParams The search parameters containing criteria such as creation date range,
+     *                     programming language and pagination options
+     * @return A list of GitHub repositories matching the specified criteria
+     */
+    @Override
+    public List<GithubRepository> getRepositories(GithubSearchParams searchParams) {
+        if (!isIndexed(searchParams)) {
+            return delegate.getRepositories(searchParams);
+        }
+        var earliestCreationDate = searchParams.earliestCreationDate() == null || searchParams.earliestCreationDate().isEmpty()
+                ? null
+                : LocalDate.parse(searchParams.earliestCreationDate());
+        return repositoryIndex.find(searchParams.language(), earliestCreationDate, searchParams.maxPages() * searchParams.pageSize());
+    }
+
+    @Override
+    public void streamRepositories(GithubSearchParams searchParams, GithubPageConsumer pageConsumer) {
+        if (!isIndexed(searchParams)) {
+            delegate.streamRepositories(searchParams, pageConsumer);
+            return;
+        }
+        pageConsumer.accept(getRepositories(searchParams));
+    }
+
+    private boolean isIndexed(GithubSearchParams searchParams) {
+        return GithubSearchParams.SOURCE_INDEX.equals(searchParams.source())
+                && searchParams.language() != null && !searchParams.language().isBlank()
+                && repositoryIndex.isSynced(searchParams.language());
+    }
+}
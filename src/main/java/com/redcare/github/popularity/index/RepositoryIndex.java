@@ -0,0 +1,325 @@
+package com.redcare.github.popularity.index;
+
+import com.redcare.github.popularity.model.CompactGithubRepository;
+import com.redcare.github.popularity.model.GithubRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Local, persistent index of GitHub repositories keyed by id.
+ * Every upsert is appended to a binary log on disk. At start-up the log is memory-mapped window by window and replayed
+ * into an in-memory lookup, later records of an id replace earlier ones. A single mapping is limited to 2GB, the
+ * windows let the log grow beyond that. Once the log holds more than twice as many records as there are
+ * repositories, it is compacted into a new log. Per language the index remembers up to when it has been synced, and
+ * keeps its repositories ordered by stars, so a search reads only as far as it has to instead of sorting everything.
+ */
+@Component
+@ConditionalOnProperty(name = "github.index.enabled", havingValue = "true")
+public class RepositoryIndex {
+    private static final String LOG_FILE = "repositories.log";
+    private static final String CHECKPOINT_FILE = "checkpoints.properties";
+    private static final String SYNCED_SUFFIX = ".synced";
+    private static final long NO_INSTANT = Long.MIN_VALUE;
+    private static final int NULL_STRING = -1;
+    private static final int REPLAY_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final Path logFile;
+    private final Path checkpointFile;
+    private static final Comparator<CompactGithubRepository> MOST_STARRED_FIRST =
+            Comparator.comparingInt(CompactGithubRepository::starsCount).reversed()
+                    .thenComparingLong(CompactGithubRepository::id);
+
+    private final Map<Long, CompactGithubRepository> repositories = new ConcurrentHashMap<>();
+    // repositories by normalized language, most starred first; only changed by replay and the synchronized upsert
+    private final Map<String, NavigableSet<CompactGithubRepository>> repositoriesByLanguage = new ConcurrentHashMap<>();
+    private final Properties checkpoints = new Properties();
+    private final int replayWindowSize;
+    private FileChannel logChannel;
+    private DataOutputStream log;
+    private long logRecords;
+
+    @Autowired
+    public RepositoryIndex(@Value("${github.index.directory:./data/index}") Path directory) throws IOException {
+        this(directory, REPLAY_WINDOW_SIZE);
+    }
+
+    RepositoryIndex(Path directory, int replayWindowSize) throws IOException {
+        this.replayWindowSize = replayWindowSize;
+        Files.createDirectories(directory);
+        this.logFile = directory.resolve(LOG_FILE);
+        this.checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpointFile)) {
+            try (var reader = Files.newBufferedReader(checkpointFile)) {
+                checkpoints.load(reader);
+            }
+        }
+        replayLog();
+        openLog();
+    }
+
+    /**
+     * Inserts or replaces the given repositories and appends them to the log.
+     *
+     * @param updatedRepositories The repositories as last seen on GitHub
+     */
+    public synchronized void upsert(Collection<GithubRepository> updatedRepositories) {
+        if (updatedRepositories.isEmpty()) {
+            return;
+        }
+        try {
+            for (var repository : updatedRepositories) {
+                writeRecord(log, repository);
+                put(repository);
+            }
+            log.flush();
+            logChannel.force(false);
+            logRecords += updatedRepositories.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to repository index", e);
+        }
+        if (logRecords > 2L * repositories.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Finds the indexed repositories of a language, most starred first. Repositories are read in star order until
+     * the limit is reached, so the cost grows with the limit and the repositories skipped by the date filter.
+     *
+     * @param language             The programming language, compared case-insensitively
+     * @param earliestCreationDate Only repositories created on or after this date are returned, null for all
+     * @param limit                The maximum number of repositories to return
+     * @return The matching repositories
+     */
+    public List<GithubRepository> find(String language, LocalDate earliestCreationDate, int limit) {
+        var earliestCreation = earliestCreationDate == null ? CompactGithubRepository.NO_TIMESTAMP
+                : earliestCreationDate.atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+        var languageRepositories = repositoriesByLanguage.get(normalize(language));
+        if (languageRepositories == null) {
+            return List.of();
+        }
+        return languageRepositories.stream()
+                .filter(repository -> earliestCreation == CompactGithubRepository.NO_TIMESTAMP
+                        || (repository.createdAt() != CompactGithubRepository.NO_TIMESTAMP && repository.createdAt() >= earliestCreation))
+                .limit(limit)
+                .map(CompactGithubRepository::toRepository)
+                .toList();
+    }
+
+    /**
+     * @param language The programming language
+     * @return The instant up to which the repositories of the language have been synced, if they have been synced
+     */
+    public synchronized Optional<Instant> getCheckpoint(String language) {
+        return Optional.ofNullable(checkpoints.getProperty(normalize(language))).map(Instant::parse);
+    }
+
+    /**
+     * Persists the instant up to which the repositories of a language have been synced.
+     */
+    public synchronized void setCheckpoint(String language, Instant syncedUntil) {
+        checkpoints.setProperty(normalize(language), syncedUntil.toString());
+        storeCheckpoints();
+    }
+
+    /**
+     * @param language The programming language
+     * @return Whether a sync of the language has caught up with the time it started once, so the index holds all
+     * repositories of the language pushed to since the initial lookback
+     */
+    public synchronized boolean isSynced(String language) {
+        return checkpoints.containsKey(normalize(language) + SYNCED_SUFFIX);
+    }
+
+    /**
+     * Persists that a sync of the language has caught up with the time it started.
+     */
+    public synchronized void markSynced(String language) {
+        if (checkpoints.setProperty(normalize(language) + SYNCED_SUFFIX, "true") == null) {
+            storeCheckpoints();
+        }
+    }
+
+    private void storeCheckpoints() {
+        var tempFile = checkpointFile.resolveSibling(CHECKPOINT_FILE + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tempFile)) {
+                checkpoints.store(writer, "Repository index sync checkpoints");
+            }
+            Files.move(tempFile, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store repository index checkpoint", e);
+        }
+    }
+
+    public int size() {
+        return repositories.size();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        log.close();
+    }
+
+    private void replayLog() throws IOException {
+        if (!Files.exists(logFile)) {
+            return;
+        }
+        var validLength = 0L;
+        try (var channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            var size = channel.size();
+            while (validLength < size) {
+                // each window starts at the first record the previous one did not hold completely
+                var windowSize = Math.min(replayWindowSize, size - validLength);
+                var lastWindow = validLength + windowSize == size;
+                var replayed = replayWindow(channel.map(FileChannel.MapMode.READ_ONLY, validLength, windowSize));
+                validLength += replayed;
+                if (lastWindow || replayed == 0) {
+                    // the rest is a record that was cut off, or one larger than a window, i.e. corrupt
+                    break;
+                }
+            }
+        }
+        // a record that was only partially written before a crash is cut off
+        try (var channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            channel.truncate(validLength);
+        }
+    }
+
+    /**
+     * @return The number of bytes of the complete records in the window
+     */
+    private int replayWindow(ByteBuffer buffer) {
+        var replayed = 0;
+        while (buffer.hasRemaining()) {
+            try {
+                var repository = readRecord(buffer);
+                put(repository);
+                logRecords++;
+                replayed = buffer.position();
+            } catch (BufferUnderflowException e) {
+                break;
+            }
+        }
+        return replayed;
+    }
+
+    private void put(GithubRepository repository) {
+        var compact = CompactGithubRepository.of(repository);
+        var replaced = repositories.put(repository.id(), compact);
+        if (replaced != null && replaced.language() != null) {
+            repositoriesByLanguage.get(normalize(replaced.language())).remove(replaced);
+        }
+        if (compact.language() != null) {
+            repositoriesByLanguage.computeIfAbsent(normalize(compact.language()),
+                    language -> new ConcurrentSkipListSet<>(MOST_STARRED_FIRST)).add(compact);
+        }
+    }
+
+    private void openLog() throws IOException {
+        logChannel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        log = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(logChannel)));
+    }
+
+    private void compact() {
+        var compactedFile = logFile.resolveSibling(LOG_FILE + ".compact");
+        try {
+            try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(compactedFile)))) {
+                for (var repository : repositories.values()) {
+                    writeRecord(output, repository.toRepository());
+                }
+            }
+            log.close();
+            Files.move(compactedFile, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logRecords = repositories.size();
+            openLog();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compact repository index", e);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream output, GithubRepository repository) throws IOException {
+        output.writeLong(repository.id());
+        writeString(output, repository.name());
+        writeString(output, repository.url());
+        output.writeLong(repository.createdAt() == null ? NO_INSTANT : repository.createdAt().getEpochSecond());
+        output.writeLong(repository.pushedAt() == null ? NO_INSTANT : repository.pushedAt().getEpochSecond());
+        output.writeInt(repository.starsCount());
+        output.writeInt(repository.forksCount());
+        writeString(output, repository.language());
+    }
+
+    private static GithubRepository readRecord(ByteBuffer buffer) {
+        var id = buffer.getLong();
+        var name = readString(buffer);
+        var url = readString(buffer);
+        var createdAt = toInstant(buffer.getLong());
+        var pushedAt = toInstant(buffer.getLong());
+        var starsCount = buffer.getInt();
+        var forksCount = buffer.getInt();
+        var language = readString(buffer);
+        return new GithubRepository(id, name, url, createdAt, pushedAt, starsCount, forksCount, language);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(NULL_STRING);
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        var length = buffer.getInt();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        var bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Instant toInstant(long epochSecond) {
+        return epochSecond == NO_INSTANT ? null : Instant.ofEpochSecond(epochSecond);
+    }
+
+    private static String normalize(String language) {
+        return language.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,97 @@
+package com.redcare.github.popularity.index;
+
+import com.redcare.github.popularity.client.RateAwareGithubClient;
+import com.redcare.github.popularity.exception.client.GithubApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Keeps the {@link RepositoryIndex} fresh. For each configured language only the repositories pushed to since the
+ * last checkpoint are fetched from GitHub, the first sync looks back a configurable duration.
+ * A range with more repositories than a crawl can read, because of the page cap or GitHub's cap of 1000 results per
+ * query, is split in halves by push time, oldest first. The checkpoint only advances past ranges that have been read
+ * completely, so a sync that runs out of pages continues where it stopped next time.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "github.index.enabled", havingValue = "true")
+public class RepositoryIndexSync {
+
+    // a range this short is taken as read even if GitHub counts more repositories than a crawl can read
+    private static final Duration MIN_RANGE = Duration.ofMinutes(1);
+
+    private final RepositoryIndex repositoryIndex;
+    private final RateAwareGithubClient githubClient;
+    private final Clock clock;
+    private final List<String> languages;
+    private final Duration initialLookback;
+    private final int maxPages;
+
+    public RepositoryIndexSync(RepositoryIndex repositoryIndex, RateAwareGithubClient githubClient, Clock clock,
+                               @Value("${github.index.languages:java}") List<String> languages,
+                               @Value("${github.index.initial-lookback:30d}") Duration initialLookback,
+                               @Value("${github.index.max-pages:10}") int maxPages) {
+        this.repositoryIndex = repositoryIndex;
+        this.githubClient = githubClient;
+        this.clock = clock;
+        this.languages = languages;
+        this.initialLookback = initialLookback;
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * Syncs all configured languages. A failing language is logged and retried with the next sync.
+     */
+    @Scheduled(initialDelayString = "${github.index.sync-initial-delay:10s}", fixedDelayString = "${github.index.sync-interval:10m}")
+    public void sync() {
+        for (var language : languages) {
+            try {
+                syncLanguage(language);
+            } catch (GithubApiException e) {
+                log.warn("Syncing the repository index for {} failed: {}", language, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Fetches the repositories of a language pushed to since its checkpoint into the index.
+     *
+     * @param language The programming language to sync
+     */
+    public void syncLanguage(String language) {
+        var syncStart = clock.instant();
+        var pushedFrom = repositoryIndex.getCheckpoint(language).orElse(syncStart.minus(initialLookback));
+        var pushedTo = syncStart;
+        var pagesLeft = maxPages;
+        while (pushedFrom.isBefore(syncStart) && pagesLeft > 0) {
+            var crawl = githubClient.streamRepositoriesPushedBetween(language, pushedFrom, pushedTo, pagesLeft,
+                    repositoryIndex::upsert);
+            pagesLeft -= crawl.pages();
+            var range = Duration.between(pushedFrom, pushedTo);
+            if (crawl.complete() || range.compareTo(MIN_RANGE) <= 0) {
+                if (!crawl.complete()) {
+                    log.warn("Repositories of {} pushed between {} and {} exceed a crawl, the index misses some of them",
+                            language, pushedFrom, pushedTo);
+                }
+                repositoryIndex.setCheckpoint(language, pushedTo);
+                pushedFrom = pushedTo;
+                pushedTo = syncStart;
+            } else {
+                // the range holds more than a crawl can read, read its older half first
+                pushedTo = pushedFrom.plus(range.dividedBy(2));
+            }
+        }
+        if (!pushedFrom.isBefore(syncStart)) {
+            repositoryIndex.markSynced(language);
+        }
+        log.debug("Synced repository index for {} until {}, {} repositories indexed", language,
+                repositoryIndex.getCheckpoint(language).orElse(null), repositoryIndex.size());
+    }
+}
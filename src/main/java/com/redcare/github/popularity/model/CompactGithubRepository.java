@@ -0,0 +1,55 @@
+package com.redcare.github.popularity.model;
+
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Compact form of a {@link GithubRepository} for repositories held in memory over a long time, such as cached search
+ * results. Timestamps are kept as epoch seconds, which is the precision of GitHub timestamps, the language as a
+ * dictionary id and the url only if it can't be derived from the name. A derived url is flagged rather than encoded in
+ * the url field, so a missing url stays null and equality covers both; the flag fits into the object's padding.
+ */
+public record CompactGithubRepository(long id, String name, @Nullable String url, boolean urlDerived, long createdAt,
+                                      long pushedAt, int starsCount, int forksCount, short languageId) {
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final String GITHUB_URL = "https://github.com/";
+
+    public static CompactGithubRepository of(GithubRepository repository) {
+        var name = repository.name();
+        var derivable = name != null && repository.url() != null
+                && repository.url().length() == GITHUB_URL.length() + name.length()
+                && repository.url().startsWith(GITHUB_URL) && repository.url().endsWith(name);
+        return new CompactGithubRepository(repository.id(), name, derivable ? null : repository.url(), derivable,
+                toEpochSecond(repository.createdAt()), toEpochSecond(repository.pushedAt()), repository.starsCount(),
+                repository.forksCount(), LanguageDictionary.id(repository.language()));
+    }
+
+    public static List<CompactGithubRepository> compact(List<GithubRepository> repositories) {
+        return repositories.stream().map(CompactGithubRepository::of).toList();
+    }
+
+    public static List<GithubRepository> expand(List<CompactGithubRepository> repositories) {
+        return repositories.stream().map(CompactGithubRepository::toRepository).toList();
+    }
+
+    public GithubRepository toRepository() {
+        return new GithubRepository(id, name, urlDerived ? GITHUB_URL + name : url,
+                toInstant(createdAt), toInstant(pushedAt), starsCount, forksCount, language());
+    }
+
+    @Nullable
+    public String language() {
+        return LanguageDictionary.language(languageId);
+    }
+
+    private static long toEpochSecond(@Nullable Instant instant) {
+        return instant == null ? NO_TIMESTAMP : instant.getEpochSecond();
+    }
+
+    @Nullable
+    private static Instant toInstant(long epochSecond) {
+        return epochSecond == NO_TIMESTAMP ? null : Instant.ofEpochSecond(epochSecond);
+    }
+}
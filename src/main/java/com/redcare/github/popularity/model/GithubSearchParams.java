@@ -5,6 +5,7 @@ import org.springframework.lang.Nullable;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Locale;
 
 /**
  * Parameters for GitHub repository search operations
@@ -17,8 +18,46 @@ public record GithubSearchParams(
         @Schema(description = "Maximum number of pages to fetch (1-30)", defaultValue = "1", minimum = "1", maximum = "30")
         Integer maxPages,
         @Schema(description = "Results per page (1-100)", minimum = "1", maximum = "100", defaultValue = "100")
-        Integer pageSize
+        Integer pageSize,
+        @Schema(description = "Sort order of the results. 'score' sorts by popularity score, highest first. Unsorted results keep GitHub's order.", allowableValues = {"score"})
+        @Nullable String sort,
+        @Schema(description = "Maximum number of results to return (1-3000). Combined with sort=score the top results are returned.", minimum = "1", maximum = "3000")
+        @Nullable Integer limit,
+        @Schema(description = "Crawl creation date slices of at most 1000 results each to go beyond GitHub's cap of 1000 results per search. maxPages is the request budget including the slice probes.", defaultValue = "false")
+        @Nullable Boolean partitioned,
+        @Schema(description = "Scoring profile that calculates the popularity score. Defaults to the configured default profile.")
+        @Nullable String profile,
+        @Schema(description = "Where results come from. 'index' answers from the local index if it is enabled and the language is synced: only repositories pushed within the index lookback, most starred first. Defaults to GitHub.", allowableValues = {"github", "index"})
+        @Nullable String source
 ) {
+    public static final String SORT_BY_SCORE = "score";
+    public static final String SOURCE_GITHUB = "github";
+    public static final String SOURCE_INDEX = "index";
+    public static final int MAX_LIMIT = 3000;
+
+    /**
+     * Creates a validated instance of unsorted and unlimited search parameters
+     */
+    public GithubSearchParams(String earliestCreationDate, String language, Integer maxPages, Integer pageSize) {
+        this(earliestCreationDate, language, maxPages, pageSize, null, null, null, null, null);
+    }
+
+    /**
+     * Creates a validated instance of search parameters scored with the default profile
+     */
+    public GithubSearchParams(String earliestCreationDate, String language, Integer maxPages, Integer pageSize,
+                              String sort, Integer limit, Boolean partitioned) {
+        this(earliestCreationDate, language, maxPages, pageSize, sort, limit, partitioned, null, null);
+    }
+
+    /**
+     * Creates a validated instance of search parameters answered from GitHub
+     */
+    public GithubSearchParams(String earliestCreationDate, String language, Integer maxPages, Integer pageSize,
+                              String sort, Integer limit, Boolean partitioned, String profile) {
+        this(earliestCreationDate, language, maxPages, pageSize, sort, limit, partitioned, profile, null);
+    }
+
     /**
      * Creates a validated instance of search parameters
      */
@@ -41,5 +80,31 @@ public record GithubSearchParams(
         } else if (pageSize < 1) {
             pageSize = 1;
         }
+        // only sorting by score is supported, an unknown sort order is rejected like an invalid date
+        if (sort == null || sort.isBlank()) {
+            sort = null;
+        } else if (SORT_BY_SCORE.equals(sort.trim().toLowerCase(Locale.ROOT))) {
+            sort = SORT_BY_SCORE;
+        } else {
+            throw new IllegalArgumentException("Unsupported sort order: " + sort);
+        }
+        // apply constraints to limit: no limit if null, otherwise ensure it's within 1-3000 range
+        if (limit != null && limit < 1) {
+            limit = 1;
+        } else if (limit != null && limit > MAX_LIMIT) {
+            limit = MAX_LIMIT;
+        }
+        // the profile is resolved when scoring, here only a blank profile is treated as the default
+        if (profile != null && profile.isBlank()) {
+            profile = null;
+        }
+        // only the local index can be asked for explicitly, GitHub is the default
+        if (source == null || source.isBlank() || SOURCE_GITHUB.equals(source.trim().toLowerCase(Locale.ROOT))) {
+            source = null;
+        } else if (SOURCE_INDEX.equals(source.trim().toLowerCase(Locale.ROOT))) {
+            source = SOURCE_INDEX;
+        } else {
+            throw new IllegalArgumentException("Unsupported source: " + source);
+        }
     }
 }
\ No newline at end of file
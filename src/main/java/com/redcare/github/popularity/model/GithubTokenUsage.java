@@ -0,0 +1,22 @@
+package com.redcare.github.popularity.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+/**
+ * Usage of one access token of the token pool, the token itself is never exposed
+ */
+public record GithubTokenUsage(
+        @Schema(description = "Name of the token in the pool")
+        String name,
+        @Schema(description = "Rate budget of the token as tracked by the application")
+        RateLimitStatus rateLimit,
+        @Schema(description = "Time until which the token is not used after GitHub rejected it, if any")
+        Instant cooldownUntil,
+        @Schema(description = "Number of requests sent with the token")
+        long requests,
+        @Schema(description = "Number of requests GitHub rejected with 401, 403 or 429")
+        long rejections
+) {
+}
@@ -0,0 +1,51 @@
+package com.redcare.github.popularity.model;
+
+import org.springframework.lang.Nullable;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes the few hundred languages known to GitHub as small ids, so cached repositories share one string per language.
+ * Ids are assigned on first use and stay valid for the lifetime of the application, id 0 stands for no language.
+ */
+public final class LanguageDictionary {
+    public static final short NO_LANGUAGE = 0;
+
+    private static final Map<String, Short> IDS = new ConcurrentHashMap<>();
+    // copied on write, a new language is published here before its id is handed out
+    private static volatile String[] languages = {null};
+
+    private LanguageDictionary() {
+    }
+
+    public static short id(@Nullable String language) {
+        if (language == null) {
+            return NO_LANGUAGE;
+        }
+        var id = IDS.get(language);
+        return id != null ? id : register(language);
+    }
+
+    @Nullable
+    public static String language(short id) {
+        return languages[id];
+    }
+
+    private static synchronized short register(String language) {
+        var id = IDS.get(language);
+        if (id != null) {
+            return id;
+        }
+        if (languages.length > Short.MAX_VALUE) {
+            throw new IllegalStateException("Too many distinct languages to encode: " + languages.length);
+        }
+        var registered = Arrays.copyOf(languages, languages.length + 1);
+        var newId = (short) languages.length;
+        registered[newId] = language;
+        languages = registered;
+        IDS.put(language, newId);
+        return newId;
+    }
+}
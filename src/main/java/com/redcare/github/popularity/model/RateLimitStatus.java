@@ -0,0 +1,22 @@
+package com.redcare.github.popularity.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+/**
+ * Snapshot of the GitHub search rate budget as tracked by the application
+ */
+public record RateLimitStatus(
+        @Schema(description = "Number of search requests GitHub allows per window")
+        int limit,
+        @Schema(description = "Number of search requests left in the current window as last reported by GitHub")
+        int remaining,
+        @Schema(description = "Number of search requests currently in flight")
+        int inFlight,
+        @Schema(description = "Time at which the current window resets")
+        Instant resetAt,
+        @Schema(description = "Time until which GitHub asked to stop sending requests (Retry-After), if any")
+        Instant blockedUntil
+) {
+}
@@ -0,0 +1,22 @@
+package com.redcare.github.popularity.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One page of a scored search result snapshot
+ */
+public record RepositoryPage(
+        @Schema(description = "Scored repositories of this page")
+        List<ScoredGithubRepository> repositories,
+        @Schema(description = "Opaque cursor of the next page, absent on the last page")
+        @Nullable String nextCursor,
+        @Schema(description = "Number of repositories in the whole snapshot")
+        int total,
+        @Schema(description = "Time after which the snapshot and its cursors may be gone")
+        Instant expiresAt
+) {
+}
@@ -1,38 +1,168 @@
 package com.redcare.github.popularity.services;
 
 import com.redcare.github.popularity.client.GithubClient;
+import com.redcare.github.popularity.client.ReactiveGithubClient;
 import com.redcare.github.popularity.domain.PopularityScorer;
+import com.redcare.github.popularity.domain.PopularityScorerRegistry;
+import com.redcare.github.popularity.domain.ScoringDays;
+import com.redcare.github.popularity.model.GithubRepository;
 import com.redcare.github.popularity.model.GithubSearchParams;
 import com.redcare.github.popularity.model.ScoredGithubRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
+import java.time.Clock;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
-@RequiredArgsConstructor
 public class GithubRepositoryService {
 
     private final GithubClient githubClient;
-    private final PopularityScorer popularityScorer;
+    private final ReactiveGithubClient reactiveGithubClient;
+    private final PopularityScorerRegistry popularityScorerRegistry;
+    private final Clock clock;
+    private final Timer scoringTimer;
+
+    public GithubRepositoryService(GithubClient githubClient, ReactiveGithubClient reactiveGithubClient,
+                                   PopularityScorerRegistry popularityScorerRegistry, Clock clock,
+                                   MeterRegistry meterRegistry) {
+        this.githubClient = githubClient;
+        this.reactiveGithubClient = reactiveGithubClient;
+        this.popularityScorerRegistry = popularityScorerRegistry;
+        this.clock = clock;
+        this.scoringTimer = Timer.builder("popularity.scoring")
+                .description("Duration of scoring one page of repositories")
+                .register(meterRegistry);
+    }
 
     /**
      * Retrieves GitHub repositories based on search parameters and calculates a popularity score for each repository.
-     * The popularity score is calculated using the repository's star count, fork count, and the time since its last update.
+     * The popularity score is calculated using the repository's star count, fork count, and the time since its last update,
+     * weighted by the scoring profile of the request.
+     *
+     * If requested, the result is sorted by score and limited. The selection is folded in while pages arrive,
+     * so a limited result never holds more than the limit plus one page. An unsorted limited result stops fetching
+     * pages as soon as the limit is reached.
      *
      * @param searchParams The search parameters used to filter GitHub repositories
      * @return A list of GitHub repositories with their calculated popularity scores
      */
     public List<ScoredGithubRepository> getRepositoriesWithPopularityScore(GithubSearchParams searchParams) {
-        var repositories = githubClient.getRepositories(searchParams);
-        return repositories.stream()
-                .map(x -> new ScoredGithubRepository(x, popularityScorer.calculateScore(x.starsCount(), x.forksCount(), getDaysSinceUpdate(x.pushedAt()))))
-                .toList();
+        // resolve the profile before fetching, so an unknown profile does not cost any GitHub requests
+        var scoring = scoring(searchParams);
+        var sortedByScore = GithubSearchParams.SORT_BY_SCORE.equals(searchParams.sort());
+        if (!sortedByScore && searchParams.limit() == null) {
+            var repositories = githubClient.getRepositories(searchParams);
+            return score(scoring, repositories);
+        }
+        var selection = new ScoredRepositorySelection(sortedByScore, searchParams.limit());
+        githubClient.streamRepositories(searchParams, page -> {
+            selection.addAll(score(scoring, page));
+            return !selection.isFull();
+        });
+        return selection.result();
+    }
+
+    /**
+     * Prepares retrieving GitHub repositories page by page and scoring each page as soon as it arrives, so the caller
+     * can emit results before the remaining pages have been fetched. The scoring profile is resolved right away, so an
+     * unknown profile fails before the caller commits to a response; GitHub is only called once the returned stream runs.
+     * A result sorted by score can only be emitted once all pages have arrived, it is handed over as a single page.
+     * An unsorted limited stream stops fetching pages as soon as the limit has been emitted.
+     *
+     * @param searchParams The search parameters used to filter GitHub repositories
+     * @return The crawl, handing over the scored repositories of each page in page order
+     */
+    public ScoredPageStream streamRepositoriesWithPopularityScore(GithubSearchParams searchParams) {
+        var scoring = scoring(searchParams);
+        if (GithubSearchParams.SORT_BY_SCORE.equals(searchParams.sort())) {
+            return pageConsumer -> pageConsumer.accept(getRepositoriesWithPopularityScore(searchParams));
+        }
+        var limit = searchParams.limit() == null ? Integer.MAX_VALUE : searchParams.limit();
+        return pageConsumer -> {
+            var emitted = new int[1];
+            githubClient.streamRepositories(searchParams, page -> {
+                var remaining = limit - emitted[0];
+                if (remaining <= 0) {
+                    return false;
+                }
+                var scored = score(scoring, page.size() > remaining ? page.subList(0, remaining) : page);
+                emitted[0] += scored.size();
+                pageConsumer.accept(scored);
+                return emitted[0] < limit;
+            });
+        };
+    }
+
+    /**
+     * Retrieves GitHub repositories without blocking and scores them page by page as they arrive.
+     * Repositories are only fetched as fast as the subscriber consumes them, a limit cancels the crawl once enough
+     * repositories have been emitted. A result sorted by score is emitted once all pages have arrived.
+     *
+     * @param searchParams The search parameters used to filter GitHub repositories
+     * @return A flux of GitHub repositories with their calculated popularity scores
+     */
+    public Flux<ScoredGithubRepository> getRepositoriesWithPopularityScoreReactive(GithubSearchParams searchParams) {
+        // resolve the profile before subscribing, so an unknown profile fails the request right away
+        var scoring = scoring(searchParams);
+        var scoredPages = reactiveGithubClient.getRepositories(searchParams)
+                .buffer(searchParams.pageSize())
+                .map(page -> score(scoring, page));
+        if (GithubSearchParams.SORT_BY_SCORE.equals(searchParams.sort())) {
+            return scoredPages
+                    .reduceWith(() -> new ScoredRepositorySelection(true, searchParams.limit()), (selection, page) -> {
+                        selection.addAll(page);
+                        return selection;
+                    })
+                    .flatMapIterable(ScoredRepositorySelection::result);
+        }
+        var scored = scoredPages.concatMapIterable(page -> page);
+        return searchParams.limit() == null ? scored : scored.take(searchParams.limit());
+    }
+
+    /**
+     * Takes the clock snapshot all pages of a request are aged against.
+     */
+    private Scoring scoring(GithubSearchParams searchParams) {
+        return new Scoring(popularityScorerRegistry.get(searchParams.profile()), ScoringDays.epochDay(clock.instant()));
+    }
+
+    private List<ScoredGithubRepository> score(Scoring scoring, List<GithubRepository> repositories) {
+        return scoringTimer.record(() -> scoreBatch(scoring, repositories));
+    }
+
+    private List<ScoredGithubRepository> scoreBatch(Scoring scoring, List<GithubRepository> repositories) {
+        // score the page as columns in one batch, all repositories are aged against the same day
+        var size = repositories.size();
+        var starCounts = new int[size];
+        var forkCounts = new int[size];
+        var daysSinceUpdate = new int[size];
+        var languages = new String[size];
+        for (var i = 0; i < size; i++) {
+            var repository = repositories.get(i);
+            starCounts[i] = repository.starsCount();
+            forkCounts[i] = repository.forksCount();
+            daysSinceUpdate[i] = getDaysSinceUpdate(repository.pushedAt(), scoring.today());
+            languages[i] = repository.language();
+        }
+        var scores = new double[size];
+        scoring.popularityScorer().calculateScores(starCounts, forkCounts, daysSinceUpdate, languages, scores);
+        var scored = new ArrayList<ScoredGithubRepository>(size);
+        for (var i = 0; i < size; i++) {
+            scored.add(new ScoredGithubRepository(repositories.get(i), scores[i]));
+        }
+        return scored;
+    }
+
+    private int getDaysSinceUpdate(Instant pushedAt, long today) {
+        return ScoringDays.daysSinceUpdate(pushedAt.getEpochSecond(), today);
     }
 
-    private int getDaysSinceUpdate(Instant pushedAt) {
-        return (int) ChronoUnit.DAYS.between(pushedAt, Instant.now());
+    private record Scoring(PopularityScorer popularityScorer, long today) {
     }
 }
@@ -0,0 +1,147 @@
+package com.redcare.github.popularity.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.redcare.github.popularity.exception.ExpiredCursorException;
+import com.redcare.github.popularity.exception.InvalidCursorException;
+import com.redcare.github.popularity.model.GithubSearchParams;
+import com.redcare.github.popularity.model.RepositoryPage;
+import com.redcare.github.popularity.model.ScoredGithubRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves scored search results page by page from snapshots. The first request of a client crawls and scores the
+ * result once and keeps it for the time-to-live, follow-up requests pass the opaque cursor of the previous page and
+ * read their slice of the snapshot without touching GitHub.
+ * Snapshots are bounded by their total number of repositories and held softly, so the garbage collector drops them
+ * under memory pressure. A cursor of a dropped or expired snapshot is answered with 410.
+ */
+@Service
+public class RepositorySnapshots {
+
+    public static final int DEFAULT_PAGE_SIZE = 25;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+
+    private final GithubRepositoryService repositoryService;
+    private final Clock clock;
+    private final Duration timeToLive;
+    private final Cache<String, Snapshot> snapshots;
+
+    public RepositorySnapshots(GithubRepositoryService repositoryService, Clock clock,
+                               @Value("${popularity.snapshot.time-to-live:5m}") Duration timeToLive,
+                               @Value("${popularity.snapshot.maximum-repositories:300000}") long maximumRepositories,
+                               MeterRegistry meterRegistry) {
+        this.repositoryService = repositoryService;
+        this.clock = clock;
+        this.timeToLive = timeToLive;
+        this.snapshots = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLive)
+                // weigh snapshots by their repository count, the empty result still occupies an entry
+                .maximumWeight(maximumRepositories)
+                .<String, Snapshot>weigher((id, snapshot) -> snapshot.repositories().size() + 1)
+                .softValues()
+                // expire on the same clock that sets the expiry time reported to clients
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .build();
+        Gauge.builder("popularity.snapshots", snapshots, Cache::estimatedSize)
+                .description("Scored result snapshots held for cursor pagination")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Crawls and scores the search result into a new snapshot and returns its first page.
+     *
+     * @param searchParams The search parameters used to filter GitHub repositories
+     * @param size         The number of repositories per page, null for the default
+     * @return The first page of the snapshot, with the cursor of the next page if there is one
+     */
+    public RepositoryPage firstPage(GithubSearchParams searchParams, Integer size) {
+        var repositories = repositoryService.getRepositoriesWithPopularityScore(searchParams);
+        var snapshot = new Snapshot(UUID.randomUUID().toString(), List.copyOf(repositories),
+                Instant.ofEpochMilli(clock.millis() + timeToLive.toMillis()));
+        snapshots.put(snapshot.id(), snapshot);
+        return page(snapshot, 0, pageSize(size));
+    }
+
+    /**
+     * Reads the page a cursor points to from its snapshot.
+     *
+     * @param cursor The cursor of a previous page
+     * @param size   The number of repositories per page, null to keep the size of the previous page
+     * @return The page, with the cursor of the next page if there is one
+     * @throws InvalidCursorException if the cursor has not been issued by this service
+     * @throws ExpiredCursorException if the snapshot of the cursor has expired or has been evicted
+     */
+    public RepositoryPage nextPage(String cursor, Integer size) {
+        var position = Cursor.decode(cursor);
+        var snapshot = snapshots.getIfPresent(position.snapshotId());
+        if (snapshot == null) {
+            throw new ExpiredCursorException("The result snapshot of the cursor has expired, start again without a cursor");
+        }
+        return page(snapshot, position.offset(), size == null ? position.size() : pageSize(size));
+    }
+
+    private static RepositoryPage page(Snapshot snapshot, int offset, int size) {
+        var total = snapshot.repositories().size();
+        var from = Math.min(offset, total);
+        var to = Math.min(total, from + size);
+        // a view of the immutable snapshot, no repository is copied
+        var repositories = snapshot.repositories().subList(from, to);
+        var nextCursor = to < total ? new Cursor(snapshot.id(), to, size).encode() : null;
+        return new RepositoryPage(repositories, nextCursor, total, snapshot.expiresAt());
+    }
+
+    private static int pageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private record Snapshot(String id, List<ScoredGithubRepository> repositories, Instant expiresAt) {
+    }
+
+    /**
+     * Position in a snapshot, handed to clients as an opaque url-safe token.
+     */
+    private record Cursor(String snapshotId, int offset, int size) {
+
+        String encode() {
+            var value = snapshotId + ":" + offset + ":" + size;
+            return CURSOR_ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                var parts = new String(CURSOR_DECODER.decode(cursor), StandardCharsets.UTF_8).split(":");
+                if (parts.length != 3) {
+                    throw new InvalidCursorException("Invalid cursor: " + cursor);
+                }
+                var offset = Integer.parseInt(parts[1]);
+                var size = Integer.parseInt(parts[2]);
+                if (offset < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+                    throw new InvalidCursorException("Invalid cursor: " + cursor);
+                }
+                return new Cursor(parts[0], offset, size);
+            } catch (IllegalArgumentException e) {
+                // malformed base64 or numbers
+                throw new InvalidCursorException("Invalid cursor: " + cursor);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.redcare.github.popularity.services;
+
+import com.redcare.github.popularity.model.ScoredGithubRepository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A crawl of scored repositories that has been validated but not started yet. The pages are fetched and scored
+ * once {@link #forEachPage(Consumer)} is called, typically on another thread than the one that created the stream.
+ */
+@FunctionalInterface
+public interface ScoredPageStream {
+
+    /**
+     * Runs the crawl, handing over each scored page as soon as it has been fetched.
+     *
+     * @param pageConsumer Receives the scored repositories of each page in page order
+     */
+    void forEachPage(Consumer<List<ScoredGithubRepository>> pageConsumer);
+}
@@ -0,0 +1,71 @@
+package com.redcare.github.popularity.services;
+
+import com.redcare.github.popularity.model.ScoredGithubRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Collects scored repositories page by page and keeps only what the caller asked for.
+ * Sorted and limited selections keep the top K in a bounded min-heap, so memory stays at O(K) no matter how many
+ * pages arrive and the result is never fully sorted. Unsorted selections keep the first K in GitHub's order.
+ */
+class ScoredRepositorySelection {
+    // highest score first, ties are broken by repository id to keep the order deterministic
+    static final Comparator<ScoredGithubRepository> BY_SCORE_DESCENDING =
+            Comparator.comparingDouble(ScoredGithubRepository::popularityScore).reversed()
+                    .thenComparingLong(scored -> scored.repository().id());
+
+    private final boolean sortedByScore;
+    private final int limit;
+    private final PriorityQueue<ScoredGithubRepository> topRepositories;
+    private final List<ScoredGithubRepository> repositories;
+
+    /**
+     * @param sortedByScore Whether the result is sorted by score, highest first
+     * @param limit         The maximum number of repositories to keep, or null to keep all
+     */
+    ScoredRepositorySelection(boolean sortedByScore, Integer limit) {
+        this.sortedByScore = sortedByScore;
+        this.limit = limit == null ? Integer.MAX_VALUE : limit;
+        var bounded = sortedByScore && limit != null;
+        // the heap head is the worst of the kept repositories, so it is the one to replace
+        this.topRepositories = bounded ? new PriorityQueue<>(limit + 1, BY_SCORE_DESCENDING.reversed()) : null;
+        this.repositories = bounded ? null : new ArrayList<>();
+    }
+
+    void addAll(List<ScoredGithubRepository> page) {
+        if (topRepositories != null) {
+            for (var scored : page) {
+                if (topRepositories.size() < limit) {
+                    topRepositories.add(scored);
+                } else if (BY_SCORE_DESCENDING.compare(scored, topRepositories.peek()) < 0) {
+                    topRepositories.poll();
+                    topRepositories.add(scored);
+                }
+            }
+            return;
+        }
+        var remaining = limit - repositories.size();
+        if (remaining > 0) {
+            repositories.addAll(page.size() > remaining ? page.subList(0, remaining) : page);
+        }
+    }
+
+    /**
+     * @return Whether further repositories can no longer change the result, i.e. an unsorted selection holds its limit
+     */
+    boolean isFull() {
+        return repositories != null && !sortedByScore && repositories.size() >= limit;
+    }
+
+    List<ScoredGithubRepository> result() {
+        var selected = topRepositories != null ? new ArrayList<>(topRepositories) : repositories;
+        if (sortedByScore) {
+            selected.sort(BY_SCORE_DESCENDING);
+        }
+        return selected;
+    }
+}
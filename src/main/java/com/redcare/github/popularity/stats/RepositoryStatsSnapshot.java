@@ -0,0 +1,105 @@
+package com.redcare.github.popularity.stats;
+
+import com.redcare.github.popularity.domain.PopularityScorer;
+import com.redcare.github.popularity.domain.ScoringDays;
+import com.redcare.github.popularity.model.LanguageDictionary;
+
+import java.util.Arrays;
+
+/**
+ * Immutable view of the {@link RepositoryStatsStore} at one point in time. Stats are held in dense columns, the
+ * repository at position {@code i} has the id {@code id(i)}, positions of ids are looked up in an open-addressing
+ * index.
+ */
+public final class RepositoryStatsSnapshot {
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final long[] ids;
+    private final int[] starCounts;
+    private final int[] forkCounts;
+    private final long[] pushedAt;
+    private final short[] languageIds;
+    private final long[] indexKeys;
+    private final int[] indexPositions;
+
+    RepositoryStatsSnapshot(long[] ids, int[] starCounts, int[] forkCounts, long[] pushedAt, short[] languageIds) {
+        this.ids = ids;
+        this.starCounts = starCounts;
+        this.forkCounts = forkCounts;
+        this.pushedAt = pushedAt;
+        this.languageIds = languageIds;
+        var capacity = Integer.highestOneBit(Math.max(1, ids.length) * 2) * 2;
+        this.indexKeys = new long[capacity];
+        this.indexPositions = new int[capacity];
+        Arrays.fill(indexKeys, RepositoryStatsStore.EMPTY);
+        for (var position = 0; position < ids.length; position++) {
+            var slot = RepositoryStatsStore.slot(indexKeys, ids[position]);
+            indexKeys[slot] = ids[position];
+            indexPositions[slot] = position;
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @param id The GitHub id of a repository
+     * @return The position of the repository in this snapshot, -1 if it is not part of it
+     */
+    public int indexOf(long id) {
+        var slot = RepositoryStatsStore.slot(indexKeys, id);
+        return indexKeys[slot] == id ? indexPositions[slot] : -1;
+    }
+
+    public long id(int position) {
+        return ids[position];
+    }
+
+    public int starsCount(int position) {
+        return starCounts[position];
+    }
+
+    public int forksCount(int position) {
+        return forkCounts[position];
+    }
+
+    /**
+     * @return The epoch second of the last push, {@link #NO_TIMESTAMP} if it is unknown
+     */
+    public long pushedAt(int position) {
+        return pushedAt[position];
+    }
+
+    public String language(int position) {
+        return LanguageDictionary.language(languageIds[position]);
+    }
+
+    /**
+     * @param today The current epoch day
+     * @return The calendar days since the last push, {@link Integer#MAX_VALUE} if the push is unknown
+     */
+    public int daysSinceUpdate(int position, long today) {
+        return pushedAt[position] == NO_TIMESTAMP ? Integer.MAX_VALUE : ScoringDays.daysSinceUpdate(pushedAt[position], today);
+    }
+
+    /**
+     * Scores all repositories of the snapshot as one batch, aged against the same day.
+     * A repository without a known push counts as not updated for the longest possible time.
+     *
+     * @param popularityScorer The scorer to apply
+     * @param today            The epoch day the days since the last push are counted up to
+     * @return The scores by position
+     */
+    public double[] score(PopularityScorer popularityScorer, long today) {
+        var scores = new double[ids.length];
+        var daysSinceUpdate = new int[ids.length];
+        var languages = new String[ids.length];
+        for (var i = 0; i < ids.length; i++) {
+            daysSinceUpdate[i] = daysSinceUpdate(i, today);
+            languages[i] = LanguageDictionary.language(languageIds[i]);
+        }
+        popularityScorer.calculateScores(starCounts, forkCounts, daysSinceUpdate, languages, scores);
+        return scores;
+    }
+}
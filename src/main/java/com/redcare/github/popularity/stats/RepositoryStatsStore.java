@@ -0,0 +1,204 @@
+package com.redcare.github.popularity.stats;
+
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.LanguageDictionary;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * In-process store of the scoring inputs of every repository seen on GitHub, keyed by repository id.
+ * Stats live in dense primitive columns in the order repositories were first seen, an open-addressing table maps ids
+ * to their positions, so hundreds of thousands of repositories can be rescored without fetching them again and
+ * without boxed keys. A repository keeps its position across updates.
+ * The store is bounded: once it holds more than the maximum number of repositories, the ones seen longest ago are
+ * removed until a tenth of the maximum is free again. Removing compacts the columns, which moves positions.
+ * Writers are serialized, readers work on immutable {@link RepositoryStatsSnapshot}s that are built on the first read
+ * after a write.
+ * The store is not part of the application context yet: until a reader of its snapshots exists, recording every
+ * fetched page would only cost a global lock and memory.
+ */
+@Slf4j
+public class RepositoryStatsStore {
+    static final long EMPTY = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // slots of the id table, a slot is free while its key is EMPTY; repository ids are never negative
+    private long[] keys;
+    private int[] slotPositions;
+    // stats by position
+    private long[] ids;
+    private int[] starCounts;
+    private int[] forkCounts;
+    private long[] pushedAt;
+    private short[] languageIds;
+    // the update that last contained the repository, whether or not its stats changed
+    private long[] seenUpdates;
+    private int size;
+    private long updates;
+    private final int maximumRepositories;
+    private volatile RepositoryStatsSnapshot snapshot;
+
+    public RepositoryStatsStore(int maximumRepositories) {
+        if (maximumRepositories < 1) {
+            throw new IllegalArgumentException("The stats store must hold at least one repository");
+        }
+        this.maximumRepositories = maximumRepositories;
+        keys = newKeys(INITIAL_CAPACITY * 2);
+        slotPositions = new int[INITIAL_CAPACITY * 2];
+        ids = new long[INITIAL_CAPACITY];
+        starCounts = new int[INITIAL_CAPACITY];
+        forkCounts = new int[INITIAL_CAPACITY];
+        pushedAt = new long[INITIAL_CAPACITY];
+        languageIds = new short[INITIAL_CAPACITY];
+        seenUpdates = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Inserts or replaces the stats of the given repositories. Repositories whose stats are unchanged are left alone,
+     * so refreshing them does not invalidate the snapshot, they only count as seen.
+     *
+     * @param repositories The repositories as last seen on GitHub
+     */
+    public synchronized void update(Collection<GithubRepository> repositories) {
+        var changed = false;
+        updates++;
+        for (var repository : repositories) {
+            var repositoryPushedAt = repository.pushedAt() == null ? RepositoryStatsSnapshot.NO_TIMESTAMP
+                    : repository.pushedAt().getEpochSecond();
+            var languageId = LanguageDictionary.id(repository.language());
+            var slot = slot(keys, repository.id());
+            int position;
+            if (keys[slot] == EMPTY) {
+                position = append(repository.id());
+            } else {
+                position = slotPositions[slot];
+                seenUpdates[position] = updates;
+                if (starCounts[position] == repository.starsCount() && forkCounts[position] == repository.forksCount()
+                        && pushedAt[position] == repositoryPushedAt && languageIds[position] == languageId) {
+                    continue;
+                }
+            }
+            starCounts[position] = repository.starsCount();
+            forkCounts[position] = repository.forksCount();
+            pushedAt[position] = repositoryPushedAt;
+            languageIds[position] = languageId;
+            changed = true;
+        }
+        if (size > maximumRepositories) {
+            evictLeastRecentlySeen();
+            changed = true;
+        }
+        if (changed) {
+            snapshot = null;
+        }
+    }
+
+    /**
+     * @return A consistent view of the stats at the time of the call, unaffected by later updates
+     */
+    public RepositoryStatsSnapshot snapshot() {
+        var current = snapshot;
+        return current != null ? current : buildSnapshot();
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized RepositoryStatsSnapshot buildSnapshot() {
+        if (snapshot != null) {
+            return snapshot;
+        }
+        // the columns are dense already, a snapshot copies their used part
+        snapshot = new RepositoryStatsSnapshot(Arrays.copyOf(ids, size), Arrays.copyOf(starCounts, size),
+                Arrays.copyOf(forkCounts, size), Arrays.copyOf(pushedAt, size), Arrays.copyOf(languageIds, size));
+        return snapshot;
+    }
+
+    private int append(long id) {
+        if (size == ids.length) {
+            grow(ids.length * 2);
+        }
+        var position = size++;
+        var slot = slot(keys, id);
+        keys[slot] = id;
+        slotPositions[slot] = position;
+        ids[position] = id;
+        seenUpdates[position] = updates;
+        return position;
+    }
+
+    /**
+     * Removes the repositories seen longest ago until a tenth of the maximum is free, keeping the order of the rest.
+     * Repositories of the current update are kept even if that leaves the store above its maximum.
+     */
+    private void evictLeastRecentlySeen() {
+        var target = maximumRepositories - maximumRepositories / 10;
+        var seen = Arrays.copyOf(seenUpdates, size);
+        Arrays.sort(seen);
+        var threshold = Math.min(seen[size - target - 1], updates - 1);
+        var kept = 0;
+        for (var position = 0; position < size; position++) {
+            if (seenUpdates[position] > threshold) {
+                ids[kept] = ids[position];
+                starCounts[kept] = starCounts[position];
+                forkCounts[kept] = forkCounts[position];
+                pushedAt[kept] = pushedAt[position];
+                languageIds[kept] = languageIds[position];
+                seenUpdates[kept] = seenUpdates[position];
+                kept++;
+            }
+        }
+        log.info("Removed {} repositories seen longest ago from the stats store, {} are left", size - kept, kept);
+        size = kept;
+        rebuildTable(keys.length);
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        starCounts = Arrays.copyOf(starCounts, capacity);
+        forkCounts = Arrays.copyOf(forkCounts, capacity);
+        pushedAt = Arrays.copyOf(pushedAt, capacity);
+        languageIds = Arrays.copyOf(languageIds, capacity);
+        seenUpdates = Arrays.copyOf(seenUpdates, capacity);
+        // keep the load factor of the id table at or below one half, so probe sequences stay short
+        rebuildTable(capacity * 2);
+    }
+
+    private void rebuildTable(int tableCapacity) {
+        keys = newKeys(tableCapacity);
+        slotPositions = new int[tableCapacity];
+        for (var position = 0; position < size; position++) {
+            var slot = slot(keys, ids[position]);
+            keys[slot] = ids[position];
+            slotPositions[slot] = position;
+        }
+    }
+
+    private static long[] newKeys(int capacity) {
+        var newKeys = new long[capacity];
+        Arrays.fill(newKeys, EMPTY);
+        return newKeys;
+    }
+
+    /**
+     * Finds the slot holding the id or the free slot it belongs in by linear probing.
+     * The capacity of the table is a power of two.
+     */
+    static int slot(long[] keys, long id) {
+        var mask = keys.length - 1;
+        var slot = hash(id) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(long id) {
+        // spread sequential ids over the table
+        var mixed = id * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+}
@@ -0,0 +1,39 @@
+package com.redcare.github.popularity.stats;
+
+import com.redcare.github.popularity.client.GithubClient;
+import com.redcare.github.popularity.client.GithubPageConsumer;
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.GithubSearchParams;
+
+import java.util.List;
+
+/**
+ * Records the stats of every repository fetched by the delegate {@link GithubClient} in the
+ * {@link RepositoryStatsStore}, including pages fetched by background cache refreshes. It belongs right above the
+ * search client in the chain of {@code GithubClientConfig} once the store has a reader.
+ */
+public class StatsRecordingGithubClient implements GithubClient {
+
+    private final GithubClient delegate;
+    private final RepositoryStatsStore statsStore;
+
+    public StatsRecordingGithubClient(GithubClient delegate, RepositoryStatsStore statsStore) {
+        this.delegate = delegate;
+        this.statsStore = statsStore;
+    }
+
+    @Override
+    public List<GithubRepository> getRepositories(GithubSearchParams searchParams) {
+        var repositories = delegate.getRepositories(searchParams);
+        statsStore.update(repositories);
+        return repositories;
+    }
+
+    @Override
+    public void streamRepositories(GithubSearchParams searchParams, GithubPageConsumer pageConsumer) {
+        delegate.streamRepositories(searchParams, page -> {
+            statsStore.update(page);
+            return pageConsumer.accept(page);
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.exception.client.GithubUnavailableException;
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.GithubSearchParams;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingGithubClientTest {
+
+    @Mock
+    private GithubClient delegate;
+    private final GithubRepository oldRepository = new GithubRepository(1, "owner/old", "https://github.com/owner/old",
+            Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2025-01-01T00:00:00Z"), 10, 2, "Java");
+    private final GithubRepository newRepository = new GithubRepository(2, "owner/new", "https://github.com/owner/new",
+            Instant.parse("2024-06-01T00:00:00Z"), null, 5, 1, "Java");
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final List<Runnable> pendingRefreshes = new ArrayList<>();
+    private CachingGithubClient client;
+
+    @BeforeEach
+    void setUp() {
+        // let the test control the time and when background refreshes run
+        client = new CachingGithubClient(delegate, Duration.ofMinutes(10), Duration.ofMinutes(1), 1000,
+                nanos::get, pendingRefreshes::add);
+    }
+
+    @Test
+    void shouldServeEqualNormalizedParamsFromCache() {
+        // arrange
+        when(delegate.getRepositories(any())).thenReturn(List.of(oldRepository));
+        // act
+        client.getRepositories(new GithubSearchParams("2023-01-01", "Java", 1, 100));
+        var result = client.getRepositories(new GithubSearchParams("2023-01-01", " java ", 1, 100));
+        // assert
+        assertThat(result).containsExactly(oldRepository);
+        verify(delegate, times(1)).getRepositories(any());
+    }
+
+    @Test
+    void shouldNotShareResultsOfDifferentParams() {
+        // arrange
+        when(delegate.getRepositories(any())).thenReturn(List.of(oldRepository));
+        // act
+        client.getRepositories(new GithubSearchParams("2023-01-01", "java", 1, 100));
+        client.getRepositories(new GithubSearchParams("2023-01-01", "java", 2, 100));
+        client.getRepositories(new GithubSearchParams("", "java", 2, 100));
+        // assert
+        verify(delegate, times(3)).getRepositories(any());
+    }
+
+    @Test
+    void shouldServeStaleResultWhileRefreshing() {
+        // arrange
+        when(delegate.getRepositories(any())).thenReturn(List.of(oldRepository), List.of(newRepository));
+        var searchParams = new GithubSearchParams("2023-01-01", "java", 1, 100);
+        client.getRepositories(searchParams);
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        // act
+        var staleResult = client.getRepositories(searchParams);
+        while (!pendingRefreshes.isEmpty()) {
+            pendingRefreshes.remove(0).run();
+        }
+        var refreshedResult = client.getRepositories(searchParams);
+        // assert
+        assertThat(staleResult).containsExactly(oldRepository);
+        assertThat(refreshedResult).containsExactly(newRepository);
+        verify(delegate, times(2)).getRepositories(any());
+    }
+
+    @Test
+    void shouldReloadAfterTimeToLive() {
+        // arrange
+        when(delegate.getRepositories(any())).thenReturn(List.of(oldRepository), List.of(newRepository));
+        var searchParams = new GithubSearchParams("2023-01-01", "java", 1, 100);
+        client.getRepositories(searchParams);
+        nanos.addAndGet(Duration.ofMinutes(11).toNanos());
+        // act
+        var result = client.getRepositories(searchParams);
+        // assert
+        assertThat(result).containsExactly(newRepository);
+    }
+
+    @Test
+    void shouldNotCacheFailures() {
+        // arrange
+        when(delegate.getRepositories(any()))
+                .thenThrow(new GithubUnavailableException("Service unavailable"))
+                .thenReturn(List.of(newRepository));
+        var searchParams = new GithubSearchParams("2023-01-01", "java", 1, 100);
+        // act & assert
+        assertThatThrownBy(() -> client.getRepositories(searchParams)).isInstanceOf(GithubUnavailableException.class);
+        assertThat(client.getRepositories(searchParams)).containsExactly(newRepository);
+    }
+}
@@ -0,0 +1,192 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.exception.client.GithubUnavailableException;
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.GithubSearchParams;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingGithubClientTest {
+
+    private static final int CALLERS = 5;
+
+    @Mock
+    private GithubClient delegate;
+    @Mock
+    private GithubRepository repository;
+
+    // one thread more than callers for a streaming caller
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS + 1);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void shouldShareOneSearchBetweenConcurrentIdenticalCalls() throws Exception {
+        // arrange: the delegate blocks until all callers have joined the in-flight search
+        var release = new CountDownLatch(1);
+        when(delegate.getRepositories(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(repository);
+        });
+        var client = new CoalescingGithubClient(delegate);
+        // act
+        var results = startCallers(client, new GithubSearchParams("2023-01-01", "java", 1, 100));
+        Thread.sleep(200);
+        release.countDown();
+        // assert
+        for (var result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).containsExactly(repository);
+        }
+        verify(delegate, times(1)).getRepositories(any());
+    }
+
+    @Test
+    void shouldShareErrorOfInFlightSearch() throws Exception {
+        // arrange
+        var release = new CountDownLatch(1);
+        when(delegate.getRepositories(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new GithubUnavailableException("Service unavailable");
+        });
+        var client = new CoalescingGithubClient(delegate);
+        // act
+        var results = startCallers(client, new GithubSearchParams("2023-01-01", "java", 1, 100));
+        Thread.sleep(200);
+        release.countDown();
+        // assert
+        for (var result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(GithubUnavailableException.class);
+        }
+        verify(delegate, times(1)).getRepositories(any());
+    }
+
+    @Test
+    void shouldSearchAgainOnceInFlightSearchCompleted() {
+        // arrange
+        when(delegate.getRepositories(any())).thenReturn(List.of(repository));
+        var client = new CoalescingGithubClient(delegate);
+        var searchParams = new GithubSearchParams("2023-01-01", "java", 1, 100);
+        // act
+        client.getRepositories(searchParams);
+        client.getRepositories(searchParams);
+        // assert
+        verify(delegate, times(2)).getRepositories(any());
+    }
+
+    @Test
+    void shouldShareStreamedSearchWithConcurrentIdenticalCalls() throws Exception {
+        // arrange: the streamed search blocks after its first page until the other callers have joined
+        var release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            GithubPageConsumer pageConsumer = invocation.getArgument(1);
+            pageConsumer.accept(List.of(repository));
+            release.await(5, TimeUnit.SECONDS);
+            pageConsumer.accept(List.of(repository));
+            return null;
+        }).when(delegate).streamRepositories(any(), any());
+        var client = new CoalescingGithubClient(delegate);
+        var searchParams = new GithubSearchParams("2023-01-01", "java", 2, 100);
+        var streamedPages = new CopyOnWriteArrayList<List<GithubRepository>>();
+        // act
+        var stream = CompletableFuture.runAsync(() -> client.streamRepositories(searchParams, page -> {
+            streamedPages.add(page);
+            return true;
+        }), callers);
+        Thread.sleep(200);
+        var results = startCallers(client, searchParams);
+        Thread.sleep(200);
+        release.countDown();
+        stream.get(5, TimeUnit.SECONDS);
+        // assert
+        assertThat(streamedPages).containsExactly(List.of(repository), List.of(repository));
+        for (var result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).containsExactly(repository, repository);
+        }
+        verify(delegate, times(1)).streamRepositories(any(), any());
+        verify(delegate, never()).getRepositories(any());
+    }
+
+    @Test
+    void shouldSearchAgainWhenStreamingCallerStopsConsuming() throws Exception {
+        // arrange: the streaming caller fails on its first page while another caller waits for the search
+        var joined = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            GithubPageConsumer pageConsumer = invocation.getArgument(1);
+            joined.await(5, TimeUnit.SECONDS);
+            pageConsumer.accept(List.of(repository));
+            return null;
+        }).when(delegate).streamRepositories(any(), any());
+        when(delegate.getRepositories(any())).thenReturn(List.of(repository));
+        var client = new CoalescingGithubClient(delegate);
+        var searchParams = new GithubSearchParams("2023-01-01", "java", 1, 100);
+        // act
+        var stream = CompletableFuture.runAsync(() -> client.streamRepositories(searchParams, page -> {
+            throw new IllegalStateException("Client went away");
+        }), callers);
+        Thread.sleep(200);
+        var result = CompletableFuture.supplyAsync(() -> client.getRepositories(searchParams), callers);
+        Thread.sleep(200);
+        joined.countDown();
+        // assert: the caller's failure stays with the caller, the waiting caller gets its own result
+        assertThatThrownBy(() -> stream.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(result.get(5, TimeUnit.SECONDS)).containsExactly(repository);
+        verify(delegate, times(1)).getRepositories(any());
+    }
+
+    @Test
+    void shouldSearchAgainWhenStreamingCallerStopsEarly() throws Exception {
+        // arrange: the streaming caller wants no page after its first while another caller waits for the search
+        var joined = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            GithubPageConsumer pageConsumer = invocation.getArgument(1);
+            joined.await(5, TimeUnit.SECONDS);
+            if (pageConsumer.accept(List.of(repository))) {
+                pageConsumer.accept(List.of(repository));
+            }
+            return null;
+        }).when(delegate).streamRepositories(any(), any());
+        when(delegate.getRepositories(any())).thenReturn(List.of(repository, repository));
+        var client = new CoalescingGithubClient(delegate);
+        var searchParams = new GithubSearchParams("2023-01-01", "java", 2, 100);
+        // act
+        var stream = CompletableFuture.runAsync(() -> client.streamRepositories(searchParams, page -> false), callers);
+        Thread.sleep(200);
+        var result = CompletableFuture.supplyAsync(() -> client.getRepositories(searchParams), callers);
+        Thread.sleep(200);
+        joined.countDown();
+        stream.get(5, TimeUnit.SECONDS);
+        // assert: the waiting caller does not get the incomplete result of the stopped search
+        assertThat(result.get(5, TimeUnit.SECONDS)).containsExactly(repository, repository);
+        verify(delegate, times(1)).getRepositories(any());
+    }
+
+    private List<CompletableFuture<List<GithubRepository>>> startCallers(GithubClient client, GithubSearchParams searchParams) {
+        return IntStream.range(0, CALLERS)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> client.getRepositories(searchParams), callers))
+                .toList();
+    }
+}
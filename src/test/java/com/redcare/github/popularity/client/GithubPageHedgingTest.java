@@ -0,0 +1,78 @@
+package com.redcare.github.popularity.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GithubPageHedgingTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ExecutorService executor;
+    private GithubPageHedging pageHedging;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        pageHedging = new GithubPageHedging(true, Duration.ofMillis(20), 2, meterRegistry);
+        // pages are answered within a millisecond, so requests are hedged after the minimum delay
+        for (var i = 0; i < 32; i++) {
+            pageHedging.record(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        pageHedging.shutdown();
+    }
+
+    @Test
+    void shouldHedgeRequestStalledAfterItWasSent() throws Exception {
+        // arrange: the first request stalls once sent, the hedged one answers right away
+        var requests = new AtomicInteger();
+        // act
+        var result = pageHedging.submit(onSent -> {
+            onSent.run();
+            if (requests.incrementAndGet() == 1) {
+                sleep(Duration.ofSeconds(2));
+                return "primary";
+            }
+            return "hedge";
+        }, executor, () -> true);
+        // assert
+        assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("hedge");
+        assertThat(meterRegistry.counter("github.hedged.requests").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldNotCountWaitBeforeRequestIsSentTowardsHedgeDelay() throws Exception {
+        // arrange: the request waits for a token far longer than the hedge delay, then is answered right away
+        var hedgeGrants = new AtomicInteger();
+        // act
+        var result = pageHedging.submit(onSent -> {
+            sleep(Duration.ofMillis(200));
+            onSent.run();
+            return "primary";
+        }, executor, () -> hedgeGrants.incrementAndGet() > 0);
+        // assert
+        assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("primary");
+        assertThat(hedgeGrants).hasValue(0);
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.redcare.github.popularity.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GithubRateLimiterTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+
+    @Test
+    void shouldStopTakingPermitsWhenAssumedBudgetIsUsedUp() {
+        var rateLimiter = new GithubRateLimiter("", clock);
+        for (int i = 0; i < 10; i++) {
+            assertThat(rateLimiter.tryTake()).isTrue();
+        }
+        assertThat(rateLimiter.tryTake()).isFalse();
+        assertThat(rateLimiter.getStatus().inFlight()).isEqualTo(10);
+        assertThat(rateLimiter.availableAtMillis()).isEqualTo(clock.instant().plusSeconds(60).toEpochMilli());
+    }
+
+    @Test
+    void shouldAssumeHigherBudgetWithToken() {
+        var rateLimiter = new GithubRateLimiter("token123", clock);
+        assertThat(rateLimiter.getStatus().limit()).isEqualTo(30);
+        assertThat(rateLimiter.getStatus().remaining()).isEqualTo(30);
+    }
+
+    @Test
+    void shouldTakeBudgetFromResponseHeaders() {
+        // arrange
+        var rateLimiter = new GithubRateLimiter("token123", clock);
+        var reset = clock.instant().plusSeconds(40);
+        assertThat(rateLimiter.tryTake()).isTrue();
+        // act
+        rateLimiter.update(rateLimitHeaders(30, 0, reset));
+        rateLimiter.release();
+        // assert
+        assertThat(rateLimiter.getStatus().remaining()).isZero();
+        assertThat(rateLimiter.tryTake()).isFalse();
+        assertThat(rateLimiter.availableAtMillis()).isEqualTo(reset.toEpochMilli());
+    }
+
+    @Test
+    void shouldKeepLowestRemainingOfOutOfOrderResponses() {
+        var rateLimiter = new GithubRateLimiter("token123", clock);
+        var reset = clock.instant().plusSeconds(40);
+        rateLimiter.update(rateLimitHeaders(30, 20, reset));
+        rateLimiter.update(rateLimitHeaders(30, 25, reset));
+        assertThat(rateLimiter.getStatus().remaining()).isEqualTo(20);
+    }
+
+    @Test
+    void shouldRefillAfterReset() {
+        // arrange
+        var rateLimiter = new GithubRateLimiter("token123", clock);
+        rateLimiter.update(rateLimitHeaders(30, 0, clock.instant().plusSeconds(40)));
+        // act
+        clock.advance(Duration.ofSeconds(41));
+        var taken = rateLimiter.tryTake();
+        // assert
+        assertThat(taken).isTrue();
+        assertThat(rateLimiter.getStatus().remaining()).isEqualTo(30);
+        assertThat(rateLimiter.getStatus().inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReportElapsedWindowAsRefilledWithoutStartingNewWindow() {
+        // arrange
+        var rateLimiter = new GithubRateLimiter("token123", clock);
+        rateLimiter.update(rateLimitHeaders(30, 0, clock.instant().plusSeconds(40)));
+        clock.advance(Duration.ofSeconds(41));
+        // act
+        var status = rateLimiter.getStatus();
+        clock.advance(Duration.ofSeconds(30));
+        var laterStatus = rateLimiter.getStatus();
+        // assert: reading twice did not fix the start of the next window
+        assertThat(status.remaining()).isEqualTo(30);
+        assertThat(laterStatus.resetAt()).isEqualTo(clock.instant().plusSeconds(60));
+    }
+
+    @Test
+    void shouldHonorRetryAfter() {
+        // arrange
+        var rateLimiter = new GithubRateLimiter("token123", clock);
+        var headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "60");
+        // act
+        rateLimiter.update(headers);
+        // assert
+        assertThat(rateLimiter.getStatus().blockedUntil()).isEqualTo(clock.instant().plusSeconds(60));
+        assertThat(rateLimiter.tryTake()).isFalse();
+        assertThat(rateLimiter.availableAtMillis()).isEqualTo(clock.instant().plusSeconds(60).toEpochMilli());
+        clock.advance(Duration.ofSeconds(61));
+        assertThat(rateLimiter.tryTake()).isTrue();
+    }
+
+    @Test
+    void shouldBecomeAvailableOnceInFlightRequestReportsBudget() {
+        // arrange: the last permit of the window is in flight
+        var rateLimiter = new GithubRateLimiter("token123", clock);
+        var reset = clock.instant().plusSeconds(40);
+        rateLimiter.update(rateLimitHeaders(30, 1, reset));
+        assertThat(rateLimiter.tryTake()).isTrue();
+        assertThat(rateLimiter.availableAtMillis()).isEqualTo(reset.toEpochMilli());
+        // act: its response reports a new window with more headroom
+        rateLimiter.update(rateLimitHeaders(30, 10, reset.plusSeconds(60)));
+        rateLimiter.release();
+        // assert
+        assertThat(rateLimiter.availableAtMillis()).isEqualTo(clock.millis());
+        assertThat(rateLimiter.headroom()).isEqualTo(10);
+    }
+
+    private static HttpHeaders rateLimitHeaders(int limit, int remaining, Instant reset) {
+        var headers = new HttpHeaders();
+        headers.set("X-RateLimit-Limit", String.valueOf(limit));
+        headers.set("X-RateLimit-Remaining", String.valueOf(remaining));
+        headers.set("X-RateLimit-Reset", String.valueOf(reset.getEpochSecond()));
+        return headers;
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
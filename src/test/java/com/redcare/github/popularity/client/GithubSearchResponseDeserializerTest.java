@@ -0,0 +1,76 @@
+package com.redcare.github.popularity.client;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.redcare.github.popularity.config.JacksonConfig;
+import com.redcare.github.popularity.model.GithubRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GithubSearchResponseDeserializerTest {
+
+    private static final String FIXTURE = "/fixtures/github-search-page-100.json";
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+    @Test
+    void shouldReadRecordedSearchPage() throws IOException {
+        // act
+        var response = readFixture(objectMapper);
+        // assert
+        assertThat(response.repoCount()).isEqualTo(123456);
+        assertThat(response.hasMore()).isFalse();
+        assertThat(response.repositories()).hasSize(100);
+        assertThat(response.repositories().get(0).name()).isEqualTo("developer000/project-000");
+        assertThat(response.repositories().get(0).url()).isEqualTo("https://github.com/developer000/project-000");
+    }
+
+    @Test
+    void shouldReadSameRepositoriesAsDataBinding() throws IOException {
+        // arrange: plain data binding of the annotated records
+        var dataBindingMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        // act
+        var streamed = readFixture(objectMapper);
+        var bound = readFixture(dataBindingMapper);
+        // assert
+        assertThat(streamed).isEqualTo(bound);
+    }
+
+    @Test
+    void shouldSkipUnusedFieldsAndKeepNulls() throws IOException {
+        // arrange
+        var json = """
+                {"total_count": 1, "incomplete_results": true, "unknown": {"nested": [1, {"a": null}]},
+                 "items": [{"owner": {"login": "octocat", "id": 1}, "topics": ["a", "b"], "id": 42,
+                            "full_name": "octocat/hello", "html_url": "https://github.com/octocat/hello",
+                            "created_at": "2024-01-01T00:00:00Z", "pushed_at": null, "license": null,
+                            "stargazers_count": 7, "forks_count": 3, "language": null, "score": 1.0}]}
+                """;
+        // act
+        var response = objectMapper.readValue(json, GithubSearchResponse.class);
+        // assert
+        assertThat(response.repoCount()).isEqualTo(1);
+        assertThat(response.hasMore()).isTrue();
+        assertThat(response.repositories()).containsExactly(new GithubRepository(42, "octocat/hello",
+                "https://github.com/octocat/hello", Instant.parse("2024-01-01T00:00:00Z"), null, 7, 3, null));
+    }
+
+    @Test
+    void shouldReadPageWithoutItems() throws IOException {
+        var response = objectMapper.readValue("{\"total_count\": 0, \"incomplete_results\": false}", GithubSearchResponse.class);
+        assertThat(response.repositories()).isEmpty();
+    }
+
+    private static GithubSearchResponse readFixture(ObjectMapper mapper) throws IOException {
+        try (var fixture = GithubSearchResponseDeserializerTest.class.getResourceAsStream(FIXTURE)) {
+            return mapper.readValue(fixture, GithubSearchResponse.class);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.exception.client.GithubRateLimitException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GithubTokenPoolTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+
+    @Test
+    void shouldUseAnonymousTokenWithoutConfiguredTokens() {
+        var tokenPool = new GithubTokenPool("", List.of(), Duration.ZERO, Duration.ofMinutes(1), clock);
+        assertThat(tokenPool.isAuthenticated()).isFalse();
+        assertThat(tokenPool.getTokens()).extracting(GithubToken::getName).containsExactly("anonymous");
+        assertThat(tokenPool.getStatus().limit()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldScaleBudgetWithNumberOfTokens() {
+        // arrange
+        var tokenPool = new GithubTokenPool("a", List.of("b", "c", "d", "a"), Duration.ZERO, Duration.ofMinutes(1), clock);
+        var requestsPerToken = new HashMap<String, Integer>();
+        // act: four tokens with 30 searches each serve 120 requests without waiting
+        for (int i = 0; i < 120; i++) {
+            requestsPerToken.merge(tokenPool.acquire().getName(), 1, Integer::sum);
+        }
+        // assert
+        assertThat(requestsPerToken).containsOnly(Map.entry("token-1", 30), Map.entry("token-2", 30),
+                Map.entry("token-3", 30), Map.entry("token-4", 30));
+        assertThat(tokenPool.getStatus().limit()).isEqualTo(120);
+        assertThatThrownBy(tokenPool::acquire).isInstanceOf(GithubRateLimitException.class);
+    }
+
+    @Test
+    void shouldPickTokenWithMostHeadroom() {
+        // arrange
+        var tokenPool = new GithubTokenPool("", List.of("a", "b"), Duration.ZERO, Duration.ofMinutes(1), clock);
+        var first = tokenPool.acquire();
+        tokenPool.update(first, rateLimitHeaders(30, 25, clock.instant().plusSeconds(40)));
+        tokenPool.release(first);
+        // act
+        var next = tokenPool.acquire();
+        // assert
+        assertThat(next).isNotSameAs(first);
+    }
+
+    @Test
+    void shouldCoolDownRejectedToken() {
+        // arrange
+        var tokenPool = new GithubTokenPool("", List.of("a", "b"), Duration.ZERO, Duration.ofMinutes(1), clock);
+        var revoked = tokenPool.acquire();
+        tokenPool.reject(revoked, HttpStatus.UNAUTHORIZED, new HttpHeaders());
+        tokenPool.release(revoked);
+        // act: the other token serves all requests during the cool-down
+        for (int i = 0; i < 30; i++) {
+            assertThat(tokenPool.acquire()).isNotSameAs(revoked);
+        }
+        // assert
+        assertThatThrownBy(tokenPool::acquire).isInstanceOf(GithubRateLimitException.class);
+        assertThat(tokenPool.getUsage()).extracting(usage -> usage.rejections()).containsExactly(1L, 0L);
+        assertThat(tokenPool.getUsage().get(0).cooldownUntil()).isEqualTo(clock.instant().plusSeconds(60));
+        clock.advance(Duration.ofSeconds(61));
+        assertThat(tokenPool.acquire()).isSameAs(revoked);
+    }
+
+    @Test
+    void shouldAggregateStatusOfAllTokens() {
+        // arrange
+        var tokenPool = new GithubTokenPool("", List.of("a", "b"), Duration.ZERO, Duration.ofMinutes(1), clock);
+        var first = tokenPool.acquire();
+        var second = tokenPool.acquire();
+        // act
+        tokenPool.update(first, rateLimitHeaders(30, 20, clock.instant().plusSeconds(40)));
+        tokenPool.update(second, rateLimitHeaders(30, 5, clock.instant().plusSeconds(20)));
+        // assert
+        var status = tokenPool.getStatus();
+        assertThat(status.limit()).isEqualTo(60);
+        assertThat(status.remaining()).isEqualTo(25);
+        assertThat(status.inFlight()).isEqualTo(2);
+        assertThat(status.resetAt()).isEqualTo(Instant.ofEpochSecond(clock.instant().plusSeconds(20).getEpochSecond()));
+        assertThat(status.blockedUntil()).isNull();
+    }
+
+    private static HttpHeaders rateLimitHeaders(int limit, int remaining, Instant reset) {
+        var headers = new HttpHeaders();
+        headers.set("X-RateLimit-Limit", String.valueOf(limit));
+        headers.set("X-RateLimit-Remaining", String.valueOf(remaining));
+        headers.set("X-RateLimit-Reset", String.valueOf(reset.getEpochSecond()));
+        return headers;
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.config.GithubRestClientConfig;
+import com.redcare.github.popularity.config.JacksonConfig;
+import com.redcare.github.popularity.exception.UnsupportedSearchException;
+import com.redcare.github.popularity.exception.client.GithubRateLimitException;
+import com.redcare.github.popularity.exception.client.GithubUnavailableException;
+import com.redcare.github.popularity.exception.client.GithubValidationException;
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.GithubSearchParams;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GraphqlGithubClientTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    private final Deque<StubResponse> responses = new ArrayDeque<>();
+    private final List<String> requestBodies = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private GraphqlGithubClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // local stub of the GitHub GraphQL endpoint answering with the queued responses
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/graphql", exchange -> {
+            requestBodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            var response = responses.poll();
+            var body = response.body().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(response.status(), body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        var baseUrl = "http://localhost:" + server.getAddress().getPort();
+        var restClient = new GithubRestClientConfig(baseUrl, HttpClient.Version.HTTP_1_1,
+                Duration.ofSeconds(1), Duration.ofSeconds(5), true).restClient(new JacksonConfig().objectMapper());
+        client = new GraphqlGithubClient("token123", restClient, CLOCK, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldFollowCursorsAndMapRequestedFields() {
+        // arrange
+        responses.add(ok(page(4999, true, "cursor-1", repositoryNode(1, "Java"))));
+        responses.add(ok(page(4998, false, "cursor-2", repositoryNode(2, null))));
+        // act
+        var result = client.getRepositories(new GithubSearchParams("2024-01-01", "java", 5, 1));
+        // assert
+        assertThat(result).containsExactly(
+                new GithubRepository(1, "owner/repo-1", "https://github.com/owner/repo-1",
+                        Instant.parse("2024-02-01T00:00:00Z"), Instant.parse("2024-12-01T00:00:00Z"), 10, 2, "Java"),
+                new GithubRepository(2, "owner/repo-2", "https://github.com/owner/repo-2",
+                        Instant.parse("2024-02-01T00:00:00Z"), Instant.parse("2024-12-01T00:00:00Z"), 20, 4, null));
+        assertThat(requestBodies).hasSize(2);
+        assertThat(requestBodies.get(0)).contains("\"query\":\"created:>=2024-01-01 language:java\"", "\"after\":null");
+        assertThat(requestBodies.get(1)).contains("\"after\":\"cursor-1\"");
+    }
+
+    @Test
+    void shouldStopAtMaxPages() {
+        // arrange
+        responses.add(ok(page(4999, true, "cursor-1", repositoryNode(1, "Java"))));
+        responses.add(ok(page(4998, true, "cursor-2", repositoryNode(2, "Java"))));
+        // act
+        var result = client.getRepositories(new GithubSearchParams("2024-01-01", "java", 2, 1));
+        // assert
+        assertThat(result).hasSize(2);
+        assertThat(requestBodies).hasSize(2);
+    }
+
+    @Test
+    void shouldRejectQueriesBeyondPointBudget() {
+        // arrange: GitHub reports the budget as used up after the first page
+        responses.add(ok(page(0, true, "cursor-1", repositoryNode(1, "Java"))));
+        // act & assert
+        assertThatThrownBy(() -> client.getRepositories(new GithubSearchParams("2024-01-01", "java", 5, 1)))
+                .isInstanceOf(GithubRateLimitException.class);
+        assertThat(requestBodies).hasSize(1);
+    }
+
+    @Test
+    void shouldMapGraphqlErrors() {
+        // arrange
+        responses.add(ok("{\"errors\":[{\"type\":\"RATE_LIMITED\",\"message\":\"API rate limit exceeded\"}]}"));
+        responses.add(ok("{\"errors\":[{\"type\":\"INVALID\",\"message\":\"Invalid search query\"}]}"));
+        responses.add(new StubResponse(502, "{}"));
+        var searchParams = new GithubSearchParams("2024-01-01", "java", 1, 1);
+        // act & assert
+        assertThatThrownBy(() -> client.getRepositories(searchParams)).isInstanceOf(GithubRateLimitException.class);
+        assertThatThrownBy(() -> client.getRepositories(searchParams)).isInstanceOf(GithubValidationException.class);
+        assertThatThrownBy(() -> client.getRepositories(searchParams)).isInstanceOf(GithubUnavailableException.class);
+    }
+
+    @Test
+    void shouldRejectPartitionedSearches() {
+        // arrange
+        var searchParams = new GithubSearchParams("2024-01-01", "java", 5, 1, null, null, true);
+        // act & assert
+        assertThatThrownBy(() -> client.getRepositories(searchParams)).isInstanceOf(UnsupportedSearchException.class);
+        assertThat(requestBodies).isEmpty();
+    }
+
+    @Test
+    void shouldRequireAccessToken() {
+        assertThatThrownBy(() -> new GraphqlGithubClient("", null, CLOCK, new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static StubResponse ok(String body) {
+        return new StubResponse(200, body);
+    }
+
+    private static String page(int remaining, boolean hasNextPage, String endCursor, String... nodes) {
+        return """
+                {"data":{"rateLimit":{"cost":1,"remaining":%d,"resetAt":"2025-01-01T01:00:00Z"},
+                "search":{"repositoryCount":1000,"pageInfo":{"hasNextPage":%s,"endCursor":"%s"},"nodes":[%s]}}}"""
+                .formatted(remaining, hasNextPage, endCursor, String.join(",", nodes));
+    }
+
+    private static String repositoryNode(long id, String language) {
+        var primaryLanguage = language == null ? "null" : "{\"name\":\"" + language + "\"}";
+        return """
+                {"databaseId":%d,"nameWithOwner":"owner/repo-%d","url":"https://github.com/owner/repo-%d",
+                "createdAt":"2024-02-01T00:00:00Z","pushedAt":"2024-12-01T00:00:00Z",
+                "stargazerCount":%d,"forkCount":%d,"primaryLanguage":%s}"""
+                .formatted(id, id, id, id * 10, id * 2, primaryLanguage);
+    }
+
+    private record StubResponse(int status, String body) {
+    }
+}
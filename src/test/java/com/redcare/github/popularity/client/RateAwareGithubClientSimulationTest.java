@@ -0,0 +1,158 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.config.GithubRestClientConfig;
+import com.redcare.github.popularity.config.JacksonConfig;
+import com.redcare.github.popularity.exception.client.GithubRateLimitException;
+import com.redcare.github.popularity.exception.client.GithubUnavailableException;
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.GithubSearchParams;
+import com.redcare.github.popularity.simulator.GithubApiSimulator;
+import com.redcare.github.popularity.simulator.LatencyDistribution;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the client over real HTTP against the {@link GithubApiSimulator}, so rate limit headers, error statuses and
+ * conditional requests go through the same code paths as against GitHub.
+ */
+class RateAwareGithubClientSimulationTest {
+
+    private final GithubSearchParams searchParams = new GithubSearchParams("2024-01-01", "java", 5, 100);
+    private ExecutorService fetchExecutor;
+    private GithubApiSimulator simulator;
+
+    @BeforeEach
+    void setUp() {
+        fetchExecutor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fetchExecutor.shutdownNow();
+        simulator.close();
+    }
+
+    @Test
+    void shouldCrawlDeterministicRepositories() {
+        // arrange
+        simulator = GithubApiSimulator.builder().seed(7).start();
+        // act
+        var result = client("token123").getRepositories(searchParams);
+        var again = client("token123").getRepositories(searchParams);
+        // assert
+        assertThat(result).hasSize(500);
+        assertThat(result).allSatisfy(repository -> assertThat(repository.language()).isEqualTo("java"));
+        assertThat(again).extracting(GithubRepository::id).isEqualTo(result.stream().map(GithubRepository::id).toList());
+        assertThat(simulator.requestCount()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldAnswerRepeatedCrawlFromNotModifiedPages() {
+        // arrange
+        simulator = GithubApiSimulator.builder().start();
+        var client = client("token123");
+        var first = client.getRepositories(searchParams);
+        // act
+        var second = client.getRepositories(searchParams);
+        // assert
+        assertThat(second).isEqualTo(first);
+        assertThat(simulator.responseCount(304)).isEqualTo(5);
+    }
+
+    @Test
+    void shouldRetryUnavailablePage() {
+        // arrange
+        simulator = GithubApiSimulator.builder().failPage(3, 503, 1).start();
+        // act
+        var result = client("token123").getRepositories(searchParams);
+        // assert
+        assertThat(result).hasSize(500);
+        assertThat(simulator.responseCount(503)).isEqualTo(1);
+        assertThat(simulator.requestCount()).isEqualTo(6);
+    }
+
+    @Test
+    void shouldFailCrawlOncePageIsUnavailableBeyondRetries() {
+        // arrange
+        simulator = GithubApiSimulator.builder().failPage(3, 503, 5).start();
+        // act & assert
+        assertThatThrownBy(() -> client("token123").getRepositories(searchParams))
+                .isInstanceOf(GithubUnavailableException.class);
+    }
+
+    @Test
+    void shouldWaitForRetryAfterOfSecondaryRateLimit() {
+        // arrange
+        simulator = GithubApiSimulator.builder()
+                .secondaryRateLimitRate(0, Duration.ofSeconds(1))
+                .failPage(2, 403, 1)
+                .start();
+        var start = System.nanoTime();
+        // act
+        var result = client("token123").getRepositories(searchParams);
+        // assert
+        assertThat(result).hasSize(500);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofSeconds(1));
+        assertThat(simulator.responseCount(403)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldHedgeStalledPage() {
+        // arrange: pages answer within 10ms, but the first request of page 4 stalls
+        simulator = GithubApiSimulator.builder()
+                .latency(LatencyDistribution.fixed(Duration.ofMillis(10)))
+                .slowPage(4, Duration.ofSeconds(3), 1)
+                .rateLimit(100, 100, Duration.ofMinutes(1))
+                .start();
+        var pageHedging = new GithubPageHedging(true, Duration.ofMillis(50), 2, new SimpleMeterRegistry());
+        var client = client("token123", pageHedging);
+        // warm up the latency percentile with the first two pages of a few crawls
+        for (var i = 0; i < 16; i++) {
+            client.getRepositories(new GithubSearchParams("2024-01-0" + (i % 9 + 1), "java", 2, 100));
+        }
+        var start = System.nanoTime();
+        // act
+        var result = client.getRepositories(searchParams);
+        // assert
+        assertThat(result).hasSize(500);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        pageHedging.shutdown();
+    }
+
+    @Test
+    void shouldStopAtExhaustedRateLimit() {
+        // arrange: GitHub allows three searches, the client would wait longer than its maximum wait for more
+        simulator = GithubApiSimulator.builder().rateLimit(3, 3, Duration.ofMinutes(1)).start();
+        // act & assert
+        assertThatThrownBy(() -> client("token123").getRepositories(searchParams))
+                .isInstanceOf(GithubRateLimitException.class);
+        assertThat(simulator.responseCount(200)).isLessThanOrEqualTo(3);
+    }
+
+    private RateAwareGithubClient client(String accessToken) {
+        return client(accessToken, GithubPageHedging.disabled(new SimpleMeterRegistry()));
+    }
+
+    private RateAwareGithubClient client(String accessToken, GithubPageHedging pageHedging) {
+        var restClient = new GithubRestClientConfig(simulator.baseUrl(), HttpClient.Version.HTTP_1_1,
+                Duration.ofSeconds(1), Duration.ofSeconds(5), true).restClient(new JacksonConfig().objectMapper());
+        // secondary rate limits ask to wait a second, more than the wait for a token of the other tests
+        var tokenPool = new GithubTokenPool(accessToken, List.of(), Duration.ofSeconds(2), Duration.ofMinutes(1),
+                Clock.systemUTC());
+        var retryPolicy = new GithubRetryPolicy(3, Duration.ofMillis(10), Duration.ofMillis(100), 0.2);
+        return new RateAwareGithubClient(restClient, fetchExecutor, 4, new ConditionalRequestCache(100), tokenPool,
+                retryPolicy, pageHedging, Clock.systemUTC(), new SimpleMeterRegistry());
+    }
+}
@@ -3,20 +3,40 @@ package com.redcare.github.popularity.client;
 import com.redcare.github.popularity.exception.client.*;
 import com.redcare.github.popularity.model.GithubRepository;
 import com.redcare.github.popularity.model.GithubSearchParams;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.util.UriBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -34,7 +54,12 @@ class RateAwareGithubClientTest {
     private GithubSearchResponse response;
     @Mock
     private GithubRepository repository;
+    @Mock
+    private GithubTokenPool tokenPool;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Clock clock = Clock.fixed(Instant.parse("2025-06-01T12:00:00Z"), ZoneOffset.UTC);
+    private ExecutorService fetchExecutor;
     private RateAwareGithubClient client;
 
     static Stream<Arguments> paginationTestCases() {
@@ -76,10 +101,29 @@ class RateAwareGithubClientTest {
     void setup() {
         // mock behavior
         when(restClient.get()).thenReturn(header);
-        when(header.uri(any(Function.class))).thenReturn(header);
+        lenient().when(header.uri(any(Function.class))).thenReturn(header);
+        when(header.headers(any())).thenReturn(header);
         when(header.retrieve()).thenReturn(responseSpec);
         // arrange
-        client = new RateAwareGithubClient("", restClient);
+        fetchExecutor = Executors.newFixedThreadPool(4);
+        client = client("");
+    }
+
+    @AfterEach
+    void tearDown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    private RateAwareGithubClient client(String accessToken) {
+        var token = accessToken.isEmpty()
+                ? new GithubToken("anonymous", null, new GithubRateLimiter(null, Clock.systemUTC()))
+                : new GithubToken("token-1", accessToken, new GithubRateLimiter(accessToken, Clock.systemUTC()));
+        lenient().when(tokenPool.acquire()).thenReturn(token);
+        lenient().when(tokenPool.isAuthenticated()).thenReturn(!token.isAnonymous());
+        // no backoff, and no retries unless a test grants rate allowance through the mocked pool
+        var retryPolicy = new GithubRetryPolicy(3, Duration.ZERO, Duration.ZERO, 0.2);
+        return new RateAwareGithubClient(restClient, fetchExecutor, 4, new ConditionalRequestCache(100), tokenPool,
+                retryPolicy, GithubPageHedging.disabled(meterRegistry), clock, meterRegistry);
     }
 
     @ParameterizedTest(name = "{0}")
@@ -90,12 +134,12 @@ class RateAwareGithubClientTest {
         List<GithubRepository> repositories = new ArrayList<>();
         repositories.add(repository);
         // mock behavior
-        when(responseSpec.body(GithubSearchResponse.class)).thenReturn(response);
+        when(responseSpec.toEntity(GithubSearchResponse.class)).thenReturn(ResponseEntity.ok(response));
         when(response.repositories()).thenReturn(repositories);
         when(response.repoCount()).thenReturn(repoCount);
         when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
         // create client with appropriate token
-        var client = new RateAwareGithubClient(accessToken, restClient);
+        var client = client(accessToken);
         // create search params with the specified values
         var searchParams = new GithubSearchParams("2023-01-01", "elixir", requestedPages, pageSize);
         // act
@@ -113,5 +157,260 @@ class RateAwareGithubClientTest {
         // act & assert
         assertThatThrownBy(() -> client.getRepositories(searchParams))
                 .isInstanceOf(exceptionClass);
+        assertThat(meterRegistry.get("github.errors").tag("type", exceptionClass.getSimpleName()).counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldRecordPageDurationsAndPagesPerRequest() {
+        // arrange
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.toEntity(GithubSearchResponse.class)).thenReturn(ResponseEntity.ok(response));
+        when(response.repoCount()).thenReturn(300);
+        when(response.repositories()).thenReturn(List.of(repository));
+        // act
+        client.getRepositories(new GithubSearchParams("2023-01-01", "elixir", 5, 100));
+        // assert
+        assertThat(meterRegistry.get("github.page.fetch").tag("outcome", "success").timer().count()).isEqualTo(3);
+        var pagesPerRequest = meterRegistry.get("github.request.pages").tag("mode", "search").summary();
+        assertThat(pagesPerRequest.count()).isEqualTo(1);
+        assertThat(pagesPerRequest.totalAmount()).isEqualTo(3.0);
+    }
+
+    @Test
+    void shouldMergeConcurrentlyFetchedPagesInPageOrder() {
+        // arrange: remember the requested page per thread so the body can be answered page-specifically
+        var requestedPage = new ThreadLocal<Integer>();
+        when(header.uri(any(Function.class))).thenAnswer(invocation -> {
+            Function<UriBuilder, URI> uriFunction = invocation.getArgument(0);
+            var query = uriFunction.apply(UriComponentsBuilder.newInstance()).getQuery();
+            requestedPage.set(Integer.parseInt(query.replaceAll(".*\\bpage=(\\d+).*", "$1")));
+            return header;
+        });
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.toEntity(GithubSearchResponse.class))
+                .thenAnswer(invocation -> ResponseEntity.ok(pageResponse(requestedPage.get())));
+        var searchParams = new GithubSearchParams("2023-01-01", "elixir", 10, 1);
+        // act
+        var result = client.getRepositories(searchParams);
+        // assert
+        assertThat(result).extracting(GithubRepository::id).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+    }
+
+    @Test
+    void shouldStopRequestingPagesOnceConsumerWantsNoMore() {
+        // arrange: remember the requested page per thread so the body can be answered page-specifically
+        var requestedPage = new ThreadLocal<Integer>();
+        when(header.uri(any(Function.class))).thenAnswer(invocation -> {
+            Function<UriBuilder, URI> uriFunction = invocation.getArgument(0);
+            var query = uriFunction.apply(UriComponentsBuilder.newInstance()).getQuery();
+            requestedPage.set(Integer.parseInt(query.replaceAll(".*\\bpage=(\\d+).*", "$1")));
+            return header;
+        });
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.toEntity(GithubSearchResponse.class))
+                .thenAnswer(invocation -> ResponseEntity.ok(pageResponse(requestedPage.get())));
+        var searchParams = new GithubSearchParams("2023-01-01", "elixir", 10, 1);
+        List<Long> ids = new ArrayList<>();
+        // act
+        client.streamRepositories(searchParams, page -> {
+            page.forEach(repository -> ids.add(repository.id()));
+            return ids.size() < 3;
+        });
+        // assert: besides the consumed pages only the window of pages in flight has been requested
+        assertThat(ids).containsExactly(1L, 2L, 3L);
+        verify(responseSpec, atMost(6)).toEntity(GithubSearchResponse.class);
+        assertThat(meterRegistry.get("github.request.pages").tag("mode", "search").summary().totalAmount())
+                .isEqualTo(3.0);
+    }
+
+    @Test
+    void shouldFailWholeRequestWhenOnePageFails() {
+        // arrange
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(response.repoCount()).thenReturn(1000);
+        when(response.repositories()).thenReturn(List.of(repository));
+        when(responseSpec.toEntity(GithubSearchResponse.class))
+                .thenReturn(ResponseEntity.ok(response))
+                .thenThrow(new GithubUnavailableException("Service unavailable"))
+                .thenReturn(ResponseEntity.ok(response));
+        var searchParams = new GithubSearchParams("2023-01-01", "elixir", 10, 100);
+        // act & assert
+        assertThatThrownBy(() -> client.getRepositories(searchParams))
+                .isInstanceOf(GithubUnavailableException.class);
+    }
+
+    @Test
+    void shouldRetryFailedPageWithinRetryBudget() {
+        // arrange
+        when(tokenPool.hasAllowance()).thenReturn(true);
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(response.repoCount()).thenReturn(1000);
+        when(response.repositories()).thenReturn(List.of(repository));
+        when(responseSpec.toEntity(GithubSearchResponse.class))
+                .thenReturn(ResponseEntity.ok(response))
+                .thenThrow(new GithubUnavailableException("Service unavailable"))
+                .thenReturn(ResponseEntity.ok(response));
+        var searchParams = new GithubSearchParams("2023-01-01", "elixir", 10, 100);
+        // act
+        var result = client.getRepositories(searchParams);
+        // assert
+        assertThat(result).hasSize(10);
+        verify(responseSpec, times(11)).toEntity(GithubSearchResponse.class);
+        assertThat(meterRegistry.get("github.retries").tag("type", "GithubUnavailableException").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldFailPageOnceRetryBudgetIsSpent() {
+        // arrange: one page grants a single retry
+        when(tokenPool.hasAllowance()).thenReturn(true);
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.toEntity(GithubSearchResponse.class)).thenThrow(new GithubUnavailableException("Service unavailable"));
+        var searchParams = new GithubSearchParams("2023-01-01", "elixir", 1, 100);
+        // act & assert
+        assertThatThrownBy(() -> client.getRepositories(searchParams))
+                .isInstanceOf(GithubUnavailableException.class);
+        verify(responseSpec, times(2)).toEntity(GithubSearchResponse.class);
+    }
+
+    @Test
+    void shouldNotRetryValidationFailures() {
+        // arrange
+        lenient().when(tokenPool.hasAllowance()).thenReturn(true);
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.toEntity(GithubSearchResponse.class)).thenThrow(new GithubValidationException("Invalid request"));
+        var searchParams = new GithubSearchParams("2023-01-01", "elixir", 10, 100);
+        // act & assert
+        assertThatThrownBy(() -> client.getRepositories(searchParams))
+                .isInstanceOf(GithubValidationException.class);
+        verify(responseSpec, times(1)).toEntity(GithubSearchResponse.class);
+    }
+
+    @Test
+    void shouldNotRetryRejectedTokenWithoutOtherToken() {
+        // arrange
+        lenient().when(tokenPool.hasAllowance()).thenReturn(true);
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.toEntity(GithubSearchResponse.class))
+                .thenThrow(new GithubAuthenticationException("Token rejected", false));
+        var searchParams = new GithubSearchParams("2023-01-01", "elixir", 1, 100);
+        // act & assert
+        assertThatThrownBy(() -> client.getRepositories(searchParams))
+                .isInstanceOf(GithubAuthenticationException.class)
+                .extracting("status").isEqualTo(HttpStatus.BAD_GATEWAY);
+        verify(responseSpec, times(1)).toEntity(GithubSearchResponse.class);
+    }
+
+    @Test
+    void shouldRetryRejectedTokenWithOtherToken() {
+        // arrange
+        when(tokenPool.hasAllowance()).thenReturn(true);
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(response.repoCount()).thenReturn(100);
+        when(response.repositories()).thenReturn(List.of(repository));
+        when(responseSpec.toEntity(GithubSearchResponse.class))
+                .thenThrow(new GithubAuthenticationException("Token rejected", true))
+                .thenReturn(ResponseEntity.ok(response));
+        var searchParams = new GithubSearchParams("2023-01-01", "elixir", 1, 100);
+        // act
+        var result = client.getRepositories(searchParams);
+        // assert
+        assertThat(result).hasSize(1);
+        verify(responseSpec, times(2)).toEntity(GithubSearchResponse.class);
+    }
+
+    @Test
+    void shouldRebuildNotModifiedPageFromStoredBody() {
+        // arrange: the stored body is kept in compact form, so the rebuilt repository is equal, not the same
+        var storedRepository = new GithubRepository(1, "owner/repo", "https://github.com/owner/repo",
+                Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2025-01-01T00:00:00Z"), 10, 2, "Elixir");
+        var storedResponse = new GithubSearchResponse(1, false, List.of(storedRepository));
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.toEntity(GithubSearchResponse.class))
+                .thenReturn(ResponseEntity.ok().eTag("\"abc\"").body(storedResponse))
+                .thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        var searchParams = new GithubSearchParams("2023-01-01", "elixir", 1, 100);
+        // act
+        client.getRepositories(searchParams);
+        var result = client.getRepositories(searchParams);
+        // assert
+        assertThat(result).containsExactly(storedRepository);
+        ArgumentCaptor<Consumer<HttpHeaders>> headersCaptor = ArgumentCaptor.forClass(Consumer.class);
+        verify(header, times(2)).headers(headersCaptor.capture());
+        var conditionalHeaders = new HttpHeaders();
+        headersCaptor.getAllValues().get(1).accept(conditionalHeaders);
+        assertThat(conditionalHeaders.getIfNoneMatch()).containsExactly("\"abc\"");
+    }
+
+    @Test
+    void shouldThrowNotModifiedWithoutStoredPage() {
+        // arrange
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.toEntity(GithubSearchResponse.class))
+                .thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        var searchParams = new GithubSearchParams("2023-01-01", "elixir", 1, 100);
+        // act & assert
+        assertThatThrownBy(() -> client.getRepositories(searchParams))
+                .isInstanceOf(GithubNotModifiedException.class);
+    }
+
+    @Test
+    void shouldPartitionCreationDatesUntilSlicesFitTheSearchCap() {
+        // arrange: GitHub reports 10 repositories per creation day, so 200 days need two slices of 100 days
+        var requestedQuery = new ThreadLocal<String>();
+        when(header.uri(any(Function.class))).thenAnswer(invocation -> {
+            Function<UriBuilder, URI> uriFunction = invocation.getArgument(0);
+            requestedQuery.set(uriFunction.apply(UriComponentsBuilder.newInstance()).getQuery());
+            return header;
+        });
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.toEntity(GithubSearchResponse.class))
+                .thenAnswer(invocation -> ResponseEntity.ok(sliceResponse(requestedQuery.get())));
+        var earliestCreationDate = LocalDate.now(clock).minusDays(199);
+        var searchParams = new GithubSearchParams(earliestCreationDate.toString(), "elixir", 30, 100, null, null, true);
+        var client = client("token123");
+        // act
+        var result = client.getRepositories(searchParams);
+        // assert: 1 probe of the full range, 2 probes of the slices and 9 more pages per slice
+        verify(responseSpec, times(21)).toEntity(GithubSearchResponse.class);
+        // the second page of each slice repeats the first page's repository and is deduplicated
+        assertThat(result).hasSize(18);
+        assertThat(result).extracting(GithubRepository::id).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void shouldSpendAtMostTheCappedPagesOnPartitionedCrawl() {
+        // arrange
+        var requestedQuery = new ThreadLocal<String>();
+        when(header.uri(any(Function.class))).thenAnswer(invocation -> {
+            Function<UriBuilder, URI> uriFunction = invocation.getArgument(0);
+            requestedQuery.set(uriFunction.apply(UriComponentsBuilder.newInstance()).getQuery());
+            return header;
+        });
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.toEntity(GithubSearchResponse.class))
+                .thenAnswer(invocation -> ResponseEntity.ok(sliceResponse(requestedQuery.get())));
+        var searchParams = new GithubSearchParams("2015-01-01", "elixir", 30, 100, null, null, true);
+        // act
+        client.getRepositories(searchParams);
+        // assert: without token the budget is 10 requests, the ranges that are still too large are dropped and counted
+        verify(responseSpec, times(10)).toEntity(GithubSearchResponse.class);
+        assertThat(meterRegistry.get("github.partitioned.dropped").tag("kind", "ranges").counter().count()).isPositive();
+    }
+
+    private static GithubSearchResponse sliceResponse(String query) {
+        var range = query.replaceAll(".*created:(\\S+)\\.\\.(\\S+) .*", "$1,$2").split(",");
+        var from = LocalDate.parse(range[0]);
+        var days = ChronoUnit.DAYS.between(from, LocalDate.parse(range[1])) + 1;
+        var page = Integer.parseInt(query.replaceAll(".*\\bpage=(\\d+).*", "$1"));
+        var id = from.toEpochDay() * 100 + Math.max(1, page - 1);
+        var sliceRepository = new GithubRepository(id, "owner/repo-" + id, null, null, null, 0, 0, "elixir");
+        return new GithubSearchResponse((int) days * 10, false, List.of(sliceRepository));
+    }
+
+    private static GithubSearchResponse pageResponse(int page) {
+        var pageRepository = new GithubRepository(page, "owner/repo-" + page, null, null, null, 0, 0, "elixir");
+        return new GithubSearchResponse(10, false, List.of(pageRepository));
     }
-}
\ No newline at end of file
+}
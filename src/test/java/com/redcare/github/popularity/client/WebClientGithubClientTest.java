@@ -0,0 +1,134 @@
+package com.redcare.github.popularity.client;
+
+import com.redcare.github.popularity.config.GithubWebClientConfig;
+import com.redcare.github.popularity.config.JacksonConfig;
+import com.redcare.github.popularity.exception.client.GithubValidationException;
+import com.redcare.github.popularity.model.GithubSearchParams;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebClientGithubClientTest {
+
+    private final List<String> requestedQueries = new CopyOnWriteArrayList<>();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicBoolean failedOnce = new AtomicBoolean();
+    private GithubTokenPool tokenPool;
+    private WebClient webClient;
+    private HttpServer server;
+    private WebClientGithubClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // local stub of the GitHub search endpoint serving 250 repositories, or a 422 for an invalid language
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/search/repositories", exchange -> {
+            var query = exchange.getRequestURI().getQuery();
+            requestedQueries.add(query);
+            var status = query.contains("language:invalid") ? 422
+                    : query.contains("language:flaky") && failedOnce.compareAndSet(false, true) ? 503 : 200;
+            var body = (status == 200 ? page(query) : "{\"message\":\"Validation Failed\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("X-RateLimit-Remaining", "9");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        var baseUrl = "http://localhost:" + server.getAddress().getPort();
+        webClient = new GithubWebClientConfig(baseUrl, Duration.ofSeconds(1), Duration.ofSeconds(5), true)
+                .githubWebClient(new JacksonConfig().objectMapper());
+        tokenPool = new GithubTokenPool("", List.of(), Duration.ofSeconds(1), Duration.ofMinutes(1), Clock.systemUTC());
+        client = new WebClientGithubClient(webClient, 2, tokenPool, GithubRetryPolicy.disabled(),
+                Mockito.mock(GithubClient.class), Clock.systemUTC(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldFetchPagesInOrderUpToAvailableRepositories() {
+        // act
+        var result = client.getRepositories(new GithubSearchParams("2024-01-01", "java", 5, 100))
+                .collectList().block();
+        // assert: 250 repositories fit into three pages
+        assertThat(result).hasSize(250);
+        assertThat(result).extracting(repository -> repository.id())
+                .containsExactlyElementsOf(IntStream.rangeClosed(1, 250).mapToObj(Long::valueOf).toList());
+        assertThat(requestedQueries).hasSize(3);
+        assertThat(meterRegistry.get("github.page.fetch").tag("outcome", "success").timer().count()).isEqualTo(3);
+        var pagesPerRequest = meterRegistry.get("github.request.pages").tag("mode", "reactive").summary();
+        assertThat(pagesPerRequest.count()).isEqualTo(1);
+        assertThat(pagesPerRequest.totalAmount()).isEqualTo(3.0);
+    }
+
+    @Test
+    void shouldOnlyFetchPagesTheSubscriberNeeds() {
+        // act
+        var result = client.getRepositories(new GithubSearchParams("2024-01-01", "java", 5, 100))
+                .take(10).collectList().block();
+        // assert
+        assertThat(result).hasSize(10);
+        assertThat(requestedQueries).hasSizeLessThan(3);
+    }
+
+    @Test
+    void shouldMapValidationErrors() {
+        var flux = client.getRepositories(new GithubSearchParams("2024-01-01", "invalid", 1, 100));
+        assertThatThrownBy(flux::blockLast).isInstanceOf(GithubValidationException.class);
+        assertThat(meterRegistry.get("github.errors").tag("type", "GithubValidationException").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("github.page.fetch").tag("outcome", "GithubValidationException").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldRetryUnavailablePageAndCountRetry() {
+        // arrange
+        var retryingClient = new WebClientGithubClient(webClient, 2, tokenPool,
+                new GithubRetryPolicy(3, Duration.ZERO, Duration.ZERO, 0.2), Mockito.mock(GithubClient.class),
+                Clock.systemUTC(), meterRegistry);
+        // act
+        var result = retryingClient.getRepositories(new GithubSearchParams("2024-01-01", "flaky", 1, 100))
+                .collectList().block();
+        // assert
+        assertThat(result).hasSize(100);
+        assertThat(requestedQueries).hasSize(2);
+        assertThat(meterRegistry.get("github.retries").tag("type", "GithubUnavailableException").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("github.page.fetch").tag("outcome", "GithubUnavailableException").timer().count())
+                .isEqualTo(1);
+    }
+
+    private static String page(String query) {
+        var page = Integer.parseInt(query.replaceAll("(?:^|.*&)page=(\\d+).*", "$1"));
+        var items = IntStream.rangeClosed((page - 1) * 100 + 1, Math.min(page * 100, 250))
+                .mapToObj(id -> """
+                        {"id":%d,"full_name":"owner/repo-%d","html_url":"https://github.com/owner/repo-%d",
+                        "created_at":"2024-02-01T00:00:00Z","pushed_at":"2024-12-01T00:00:00Z",
+                        "stargazers_count":%d,"forks_count":1,"language":"Java"}""".formatted(id, id, id, id))
+                .collect(Collectors.joining(","));
+        return "{\"total_count\":250,\"incomplete_results\":false,\"items\":[" + items + "]}";
+    }
+}
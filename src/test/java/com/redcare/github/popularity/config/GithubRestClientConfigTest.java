@@ -0,0 +1,97 @@
+package com.redcare.github.popularity.config;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.RestClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GithubRestClientConfigTest {
+
+    private static final String BODY = "{\"total_count\":0,\"incomplete_results\":false,\"items\":[]}";
+
+    private final List<String> acceptedEncodings = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // local stub compressing its responses whenever the client accepts gzip
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/search/repositories", exchange -> {
+            var acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            acceptedEncodings.add(String.valueOf(acceptEncoding));
+            var body = BODY.getBytes(StandardCharsets.UTF_8);
+            if ("gzip".equals(acceptEncoding)) {
+                body = gzip(body);
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/not-modified", exchange -> {
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @ParameterizedTest(name = "compression={0}")
+    @ValueSource(booleans = {true, false})
+    void shouldReadResponsesWithAndWithoutCompression(boolean compression) {
+        // arrange
+        var restClient = restClient(compression);
+        // act
+        var body = restClient.get().uri("/search/repositories").retrieve().body(Map.class);
+        // assert
+        assertThat(body).containsEntry("total_count", 0);
+        assertThat(acceptedEncodings).containsExactly(compression ? "gzip" : "null");
+    }
+
+    @Test
+    void shouldReadEmptyCompressedResponse() {
+        // act
+        var response = restClient(true).get().uri("/not-modified").retrieve().toEntity(String.class);
+        // assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+    }
+
+    private RestClient restClient(boolean compression) {
+        return new GithubRestClientConfig(baseUrl, HttpClient.Version.HTTP_1_1, Duration.ofSeconds(1),
+                Duration.ofSeconds(5), compression).restClient(new JacksonConfig().objectMapper());
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        var compressed = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,76 @@
+package com.redcare.github.popularity.config;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnknownFieldSet;
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.RepositoryPage;
+import com.redcare.github.popularity.model.ScoredGithubRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScoredRepositoryProtobufHttpMessageConverterTest {
+
+    private static final MediaType PROTOBUF = ScoredRepositoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF;
+
+    private final ScoredRepositoryProtobufHttpMessageConverter converter = new ScoredRepositoryProtobufHttpMessageConverter();
+    private final GithubRepository repository = new GithubRepository(42, "owner/repo", "https://github.com/owner/repo",
+            Instant.parse("2024-01-01T00:00:00Z"), null, 1500, 0, "Java");
+
+    @Test
+    void shouldOnlyWriteScoredRepositories() {
+        var scoredListType = new ParameterizedTypeReference<List<ScoredGithubRepository>>() {
+        }.getType();
+        var stringListType = new ParameterizedTypeReference<List<String>>() {
+        }.getType();
+        assertThat(converter.canWrite(scoredListType, List.class, PROTOBUF)).isTrue();
+        assertThat(converter.canWrite(RepositoryPage.class, RepositoryPage.class, PROTOBUF)).isTrue();
+        assertThat(converter.canWrite(stringListType, List.class, PROTOBUF)).isFalse();
+        assertThat(converter.canWrite(scoredListType, List.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canRead(RepositoryPage.class, null, PROTOBUF)).isFalse();
+    }
+
+    @Test
+    void shouldWriteRepositoriesFollowingSchema() throws Exception {
+        // arrange
+        var outputMessage = new MockHttpOutputMessage();
+        // act
+        converter.write(List.of(new ScoredGithubRepository(repository, 1.25)), null, PROTOBUF, outputMessage);
+        // assert: ScoredGithubRepositories.repositories = 1
+        var repositories = UnknownFieldSet.parseFrom(outputMessage.getBodyAsBytes());
+        var scored = UnknownFieldSet.parseFrom(repositories.getField(1).getLengthDelimitedList().get(0));
+        assertThat(Double.longBitsToDouble(scored.getField(2).getFixed64List().get(0))).isEqualTo(1.25);
+        var fields = UnknownFieldSet.parseFrom(scored.getField(1).getLengthDelimitedList().get(0));
+        assertThat(fields.getField(1).getVarintList()).containsExactly(42L);
+        assertThat(fields.getField(2).getLengthDelimitedList()).containsExactly(ByteString.copyFromUtf8("owner/repo"));
+        assertThat(fields.getField(4).getVarintList()).containsExactly(Instant.parse("2024-01-01T00:00:00Z").toEpochMilli());
+        assertThat(fields.getField(6).getVarintList()).containsExactly(1500L);
+        assertThat(fields.getField(8).getLengthDelimitedList()).containsExactly(ByteString.copyFromUtf8("Java"));
+        // absent values and proto3 defaults are left out
+        assertThat(fields.hasField(5)).isFalse();
+        assertThat(fields.hasField(7)).isFalse();
+    }
+
+    @Test
+    void shouldWritePageWithCursor() throws Exception {
+        // arrange
+        var outputMessage = new MockHttpOutputMessage();
+        var expiresAt = Instant.parse("2025-01-01T00:05:00Z");
+        var page = new RepositoryPage(List.of(new ScoredGithubRepository(repository, 1.25),
+                new ScoredGithubRepository(repository, 0.5)), "next", 60, expiresAt);
+        // act
+        converter.write(page, RepositoryPage.class, PROTOBUF, outputMessage);
+        // assert
+        var fields = UnknownFieldSet.parseFrom(outputMessage.getBodyAsBytes());
+        assertThat(fields.getField(1).getLengthDelimitedList()).hasSize(2);
+        assertThat(fields.getField(2).getLengthDelimitedList()).containsExactly(ByteString.copyFromUtf8("next"));
+        assertThat(fields.getField(3).getVarintList()).containsExactly(60L);
+        assertThat(fields.getField(4).getVarintList()).containsExactly(expiresAt.toEpochMilli());
+    }
+}
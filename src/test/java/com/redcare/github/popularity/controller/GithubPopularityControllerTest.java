@@ -1,33 +1,59 @@
 package com.redcare.github.popularity.controller;
 
+import com.redcare.github.popularity.config.JacksonConfig;
+import com.redcare.github.popularity.config.ScoredRepositoryProtobufHttpMessageConverter;
+import com.redcare.github.popularity.exception.ExpiredCursorException;
+import com.redcare.github.popularity.exception.UnknownScoringProfileException;
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.RepositoryPage;
 import com.redcare.github.popularity.model.ScoredGithubRepository;
 import com.redcare.github.popularity.services.GithubRepositoryService;
+import com.redcare.github.popularity.services.RepositorySnapshots;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import reactor.core.publisher.Flux;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(GithubPopularityController.class)
+@Import(SimpleMeterRegistry.class)
 class GithubPopularityControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
     @MockitoBean
     private GithubRepositoryService service;
+    @MockitoBean
+    private RepositorySnapshots snapshots;
     @Mock
     private ScoredGithubRepository repository;
 
@@ -49,7 +75,9 @@ class GithubPopularityControllerTest {
                 Arguments.of("Valid pageSize", "/api/v1/repositories?pageSize=50", 200),
                 Arguments.of("Invalid pageSize (too high)", "/api/v1/repositories?pageSize=200", 200), // Still valid as it gets capped
                 Arguments.of("Multiple valid parameters", "/api/v1/repositories?earliestCreationDate=2025-05-11&language=java&maxPages=5&pageSize=50", 200),
-                Arguments.of("Mix of valid and invalid parameters", "/api/v1/repositories?earliestCreationDate=blabal&language=java", 400)
+                Arguments.of("Mix of valid and invalid parameters", "/api/v1/repositories?earliestCreationDate=blabal&language=java", 400),
+                Arguments.of("Top results by score", "/api/v1/repositories?language=java&sort=score&limit=20", 200),
+                Arguments.of("Invalid sort", "/api/v1/repositories?sort=stars", 400)
         );
     }
 
@@ -60,4 +88,137 @@ class GithubPopularityControllerTest {
                 .andDo(print())
                 .andExpect(status().is(expectedStatus));
     }
+
+    @Test
+    void shouldRejectUnknownScoringProfile() throws Exception {
+        // arrange
+        when(service.getRepositoriesWithPopularityScore(any()))
+                .thenThrow(new UnknownScoringProfileException("Unknown scoring profile: unknown"));
+        // act & assert
+        this.mockMvc.perform(get("/api/v1/repositories?profile=unknown"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldStreamScoredRepositoriesAsNdjson() throws Exception {
+        // arrange: the service hands over two pages
+        when(service.streamRepositoriesWithPopularityScore(any())).thenReturn(pageConsumer -> {
+            pageConsumer.accept(List.of(scoredRepository(1, 1.5)));
+            pageConsumer.accept(List.of(scoredRepository(2, 0.5)));
+        });
+        // act
+        var result = this.mockMvc.perform(get("/api/v1/repositories?language=java").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // assert
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(matchesPattern("(?s)\\{.*\"id\":1.*}\\n\\{.*\"id\":2.*}\\n")));
+    }
+
+    @Test
+    void shouldRejectUnknownScoringProfileBeforeStreaming() throws Exception {
+        // arrange
+        when(service.streamRepositoriesWithPopularityScore(any()))
+                .thenThrow(new UnknownScoringProfileException("Unknown scoring profile: unknown"));
+        // act & assert: the request is answered right away instead of starting an async stream
+        this.mockMvc.perform(get("/api/v1/repositories?profile=unknown").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("Unknown scoring profile: unknown")));
+    }
+
+    @Test
+    void shouldStreamReactiveScoredRepositoriesAsNdjson() throws Exception {
+        // arrange
+        when(service.getRepositoriesWithPopularityScoreReactive(any()))
+                .thenReturn(Flux.just(scoredRepository(1, 1.5), scoredRepository(2, 0.5)));
+        // act
+        var result = this.mockMvc.perform(get("/api/v1/reactive/repositories?language=java").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // assert
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(matchesPattern("(?s)\\{.*\"id\":1.*}\\n\\{.*\"id\":2.*}\\n")));
+    }
+
+    @Test
+    void shouldReturnFirstPageOfNewSnapshot() throws Exception {
+        // arrange
+        when(snapshots.firstPage(any(), eq(1))).thenReturn(new RepositoryPage(List.of(scoredRepository(1, 1.5)),
+                "next", 2, Instant.parse("2025-01-01T00:05:00Z")));
+        // act & assert
+        this.mockMvc.perform(get("/api/v1/repositories/pages?language=java&size=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.repositories[0].repository.id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.total").value(2));
+    }
+
+    @Test
+    void shouldReadNextPageFromSnapshotOfCursor() throws Exception {
+        // arrange
+        when(snapshots.nextPage(eq("next"), isNull())).thenReturn(new RepositoryPage(List.of(scoredRepository(2, 0.5)),
+                null, 2, Instant.parse("2025-01-01T00:05:00Z")));
+        // act & assert
+        this.mockMvc.perform(get("/api/v1/repositories/pages?cursor=next"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.repositories[0].repository.id").value(2))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void shouldAnswerExpiredCursorWithGone() throws Exception {
+        // arrange
+        when(snapshots.nextPage(any(), any())).thenThrow(new ExpiredCursorException("expired"));
+        // act & assert
+        this.mockMvc.perform(get("/api/v1/repositories/pages?cursor=next"))
+                .andExpect(status().isGone());
+    }
+
+    static Stream<Arguments> mediaTypeTestCases() {
+        return Stream.of(
+                // Format: accepted media type, expected content type
+                Arguments.of(MediaType.ALL, MediaType.APPLICATION_JSON),
+                Arguments.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_JSON),
+                Arguments.of(new MediaType("application", "x-jackson-smile"), new MediaType("application", "x-jackson-smile")),
+                Arguments.of(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_CBOR),
+                Arguments.of(ScoredRepositoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF,
+                        ScoredRepositoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("mediaTypeTestCases")
+    void shouldNegotiateResponseFormat(MediaType accepted, MediaType expected) throws Exception {
+        // arrange
+        when(service.getRepositoriesWithPopularityScore(any())).thenReturn(List.of(scoredRepository(1, 1.5)));
+        // act & assert
+        this.mockMvc.perform(get("/api/v1/repositories?language=java").accept(accepted))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(expected));
+    }
+
+    @Test
+    void shouldWriteSmileReadableWithApplicationModules() throws Exception {
+        // arrange
+        when(service.getRepositoriesWithPopularityScore(any())).thenReturn(List.of(scoredRepository(1, 1.5)));
+        // act
+        var body = this.mockMvc.perform(get("/api/v1/repositories").accept(new MediaType("application", "x-jackson-smile")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        // assert
+        var result = JacksonConfig.smileObjectMapper().readValue(body, ScoredGithubRepository[].class);
+        assertThat(result).containsExactly(scoredRepository(1, 1.5));
+    }
+
+    private static ScoredGithubRepository scoredRepository(long id, double score) {
+        var repository = new GithubRepository(id, "owner/repo-" + id, "https://github.com/owner/repo-" + id,
+                Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2025-01-01T00:00:00Z"), 10, 2, "Java");
+        return new ScoredGithubRepository(repository, score);
+    }
 }
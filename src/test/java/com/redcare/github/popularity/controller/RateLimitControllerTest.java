@@ -0,0 +1,52 @@
+package com.redcare.github.popularity.controller;
+
+import com.redcare.github.popularity.client.GithubTokenPool;
+import com.redcare.github.popularity.model.GithubTokenUsage;
+import com.redcare.github.popularity.model.RateLimitStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(RateLimitController.class)
+class RateLimitControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private GithubTokenPool tokenPool;
+
+    @Test
+    void shouldReturnRateLimitStatus() throws Exception {
+        when(tokenPool.getStatus()).thenReturn(new RateLimitStatus(30, 12, 3, Instant.parse("2025-01-01T00:01:00Z"), null));
+        this.mockMvc.perform(get("/api/v1/rate-limit"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.limit").value(30))
+                .andExpect(jsonPath("$.remaining").value(12))
+                .andExpect(jsonPath("$.inFlight").value(3));
+    }
+
+    @Test
+    void shouldReturnUsageOfEachToken() throws Exception {
+        var status = new RateLimitStatus(30, 0, 0, Instant.parse("2025-01-01T00:01:00Z"), null);
+        when(tokenPool.getUsage()).thenReturn(List.of(
+                new GithubTokenUsage("token-1", status, Instant.parse("2025-01-01T00:02:00Z"), 42, 1),
+                new GithubTokenUsage("token-2", status, null, 40, 0)));
+        this.mockMvc.perform(get("/api/v1/rate-limit/tokens"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("token-1"))
+                .andExpect(jsonPath("$[0].requests").value(42))
+                .andExpect(jsonPath("$[0].rejections").value(1))
+                .andExpect(jsonPath("$[1].cooldownUntil").doesNotExist())
+                .andExpect(jsonPath("$[1].rateLimit.limit").value(30));
+    }
+}
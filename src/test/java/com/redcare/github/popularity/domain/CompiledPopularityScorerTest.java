@@ -0,0 +1,62 @@
+package com.redcare.github.popularity.domain;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompiledPopularityScorerTest {
+
+    @Test
+    void shouldCompileDefaultProfileToSimpleFormula() {
+        var simpleScorer = new SimplePopularityScorer();
+        var compiledScorer = profile(null, null, null).compile();
+        for (int i = 0; i < 1000; i++) {
+            var stars = (int) (Math.random() * 50000);
+            var forks = (int) (Math.random() * 5000);
+            var daysSinceUpdate = (int) (Math.random() * 1000);
+            assertEquals(simpleScorer.calculateScore(stars, forks, daysSinceUpdate),
+                    compiledScorer.calculateScore(stars, forks, daysSinceUpdate));
+        }
+    }
+
+    @ParameterizedTest(name = "daysSinceUpdate={0} -> score={1}")
+    @CsvSource({
+            "0, 5.0",
+            "30, 2.5",   // one half-life
+            "60, 1.25",  // two half-lives
+    })
+    void shouldHalveScoreEveryHalfLife(int daysSinceUpdate, double expectedScore) {
+        var scorer = profile(ScoringProfile.Decay.EXPONENTIAL, 30.0, null).compile();
+        assertEquals(expectedScore, scorer.calculateScore(10000, 1000, daysSinceUpdate));
+    }
+
+    @ParameterizedTest(name = "language={0} -> score={1}")
+    @CsvSource(value = {
+            "Java, 1.0",
+            "java, 1.0",
+            "Go, 0.5",
+            "NULL, 0.5"
+    }, nullValues = "NULL")
+    void shouldBoostConfiguredLanguages(String language, double expectedScore) {
+        var scorer = profile(null, null, Map.of("java", 2.0)).compile();
+        assertEquals(expectedScore, scorer.calculateScore(1000, 100, 0, language));
+        var scores = new double[1];
+        scorer.calculateScores(new int[]{1000}, new int[]{100}, new int[]{0}, new String[]{language}, scores);
+        assertEquals(expectedScore, scores[0]);
+    }
+
+    @Test
+    void shouldRejectProfileWithoutPositiveRawScore() {
+        assertThrows(IllegalArgumentException.class, () -> new ScoringProfile(0.0, 0.0, null, null, null,
+                null, null, null, null, null, null, null));
+    }
+
+    private static ScoringProfile profile(ScoringProfile.Decay decay, Double halfLifeDays, Map<String, Double> languageBoosts) {
+        return new ScoringProfile(null, null, null, null, decay, null, null, halfLifeDays, null, null, null, languageBoosts);
+    }
+}
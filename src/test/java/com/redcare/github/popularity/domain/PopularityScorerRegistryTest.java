@@ -0,0 +1,39 @@
+package com.redcare.github.popularity.domain;
+
+import com.redcare.github.popularity.exception.UnknownScoringProfileException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PopularityScorerRegistryTest {
+
+    private final SimplePopularityScorer simpleScorer = new SimplePopularityScorer();
+    private final ScoringProfile forksOnly = new ScoringProfile(0.0, 1.0, null, null, null, null, null, null,
+            null, null, null, null);
+
+    @Test
+    void shouldServeSimpleProfileByDefault() {
+        var registry = new PopularityScorerRegistry(simpleScorer, new ScoringProperties(null, Map.of("forks", forksOnly)));
+        assertThat(registry.get(null)).isSameAs(simpleScorer);
+        assertThat(registry.get(" ")).isSameAs(simpleScorer);
+        assertThat(registry.get("simple")).isSameAs(simpleScorer);
+    }
+
+    @Test
+    void shouldSelectConfiguredProfileCaseInsensitively() {
+        var registry = new PopularityScorerRegistry(simpleScorer, new ScoringProperties("Forks", Map.of("forks", forksOnly)));
+        assertThat(registry.get(null)).isSameAs(registry.get("FORKS")).isNotSameAs(simpleScorer);
+        assertThat(registry.get(null).calculateScore(10000, 0, 0)).isEqualTo(0.0);
+    }
+
+    @Test
+    void shouldRejectUnknownProfiles() {
+        var registry = new PopularityScorerRegistry(simpleScorer, new ScoringProperties(null, null));
+        assertThatThrownBy(() -> registry.get("unknown")).isInstanceOf(UnknownScoringProfileException.class);
+        assertThatThrownBy(() -> new PopularityScorerRegistry(simpleScorer, new ScoringProperties("unknown", null)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SimplePopularityScorerTest {
@@ -37,4 +38,30 @@ class SimplePopularityScorerTest {
                     () -> "Score out of bounds for stars=" + stars + ", forks=" + forks + ", days=" + daysSinceUpdate);
         }
     }
+
+    @Test
+    void shouldCalculateSameScoresInBatch() {
+        var scorer = new SimplePopularityScorer();
+        var size = 1000;
+        var stars = new int[size];
+        var forks = new int[size];
+        var daysSinceUpdate = new int[size];
+        for (int i = 0; i < size; i++) {
+            stars[i] = (int) (Math.random() * 50000);
+            forks[i] = (int) (Math.random() * 5000);
+            daysSinceUpdate[i] = (int) (Math.random() * 1000);
+        }
+        var scores = new double[size];
+        scorer.calculateScores(stars, forks, daysSinceUpdate, scores);
+        for (int i = 0; i < size; i++) {
+            assertEquals(scorer.calculateScore(stars[i], forks[i], daysSinceUpdate[i]), scores[i]);
+        }
+    }
+
+    @Test
+    void shouldRejectShorterColumnsInBatch() {
+        var scorer = new SimplePopularityScorer();
+        assertThrows(IllegalArgumentException.class,
+                () -> scorer.calculateScores(new int[2], new int[1], new int[2], new double[2]));
+    }
 }
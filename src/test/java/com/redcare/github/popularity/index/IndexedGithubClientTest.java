@@ -0,0 +1,87 @@
+package com.redcare.github.popularity.index;
+
+import com.redcare.github.popularity.client.GithubClient;
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.GithubSearchParams;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IndexedGithubClientTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2024-03-01T10:15:30Z");
+
+    @TempDir
+    private Path directory;
+    @Mock
+    private GithubClient delegate;
+
+    private final GithubRepository indexedRepository = new GithubRepository(1, "repo-1", "https://github.com/repo-1",
+            CREATED_AT, CREATED_AT, 10, 0, "java");
+    private final GithubRepository githubRepository = new GithubRepository(2, "repo-2", "https://github.com/repo-2",
+            CREATED_AT, CREATED_AT, 5, 0, "java");
+    private RepositoryIndex repositoryIndex;
+    private IndexedGithubClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        repositoryIndex = new RepositoryIndex(directory);
+        repositoryIndex.upsert(List.of(indexedRepository));
+        repositoryIndex.markSynced("java");
+        client = new IndexedGithubClient(repositoryIndex, delegate);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        repositoryIndex.close();
+    }
+
+    @Test
+    void shouldSearchGithubWithoutIndexSource() {
+        // arrange
+        var searchParams = new GithubSearchParams("2023-01-01", "java", 1, 100);
+        when(delegate.getRepositories(searchParams)).thenReturn(List.of(githubRepository));
+        // act
+        var result = client.getRepositories(searchParams);
+        // assert
+        assertThat(result).containsExactly(githubRepository);
+    }
+
+    @Test
+    void shouldAnswerFromIndexWithIndexSource() {
+        // arrange
+        var searchParams = new GithubSearchParams("2023-01-01", "java", 1, 100, null, null, null, null,
+                GithubSearchParams.SOURCE_INDEX);
+        // act
+        var result = client.getRepositories(searchParams);
+        // assert
+        assertThat(result).containsExactly(indexedRepository);
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void shouldSearchGithubForLanguageNotSyncedYet() {
+        // arrange
+        var searchParams = new GithubSearchParams("2023-01-01", "go", 1, 100, null, null, null, null,
+                GithubSearchParams.SOURCE_INDEX);
+        // act
+        client.getRepositories(searchParams);
+        // assert
+        verify(delegate).getRepositories(searchParams);
+    }
+}
@@ -0,0 +1,84 @@
+package com.redcare.github.popularity.index;
+
+import com.redcare.github.popularity.client.RateAwareGithubClient;
+import com.redcare.github.popularity.client.RateAwareGithubClient.CrawlProgress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RepositoryIndexSyncTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-31T00:00:00Z");
+    private static final Instant LOOKBACK_START = NOW.minus(Duration.ofDays(30));
+
+    @TempDir
+    private Path directory;
+    @Mock
+    private RateAwareGithubClient githubClient;
+
+    private RepositoryIndex repositoryIndex;
+    private RepositoryIndexSync sync;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        repositoryIndex = new RepositoryIndex(directory);
+        sync = new RepositoryIndexSync(repositoryIndex, githubClient, Clock.fixed(NOW, ZoneOffset.UTC),
+                List.of("java"), Duration.ofDays(30), 10);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        repositoryIndex.close();
+    }
+
+    @Test
+    void shouldAdvanceCheckpointToSyncStartAfterCompleteCrawl() {
+        // arrange
+        when(githubClient.streamRepositoriesPushedBetween(eq("java"), eq(LOOKBACK_START), eq(NOW), eq(10), any()))
+                .thenReturn(new CrawlProgress(3, true));
+        // act
+        sync.syncLanguage("java");
+        // assert
+        assertThat(repositoryIndex.getCheckpoint("java")).contains(NOW);
+        assertThat(repositoryIndex.isSynced("java")).isTrue();
+    }
+
+    @Test
+    void shouldSplitRangeThatExceedsCrawlAndKeepCheckpointAtLastCompleteRange() {
+        // arrange: the whole lookback and its older half hold too many repositories, the older quarter fits
+        var half = LOOKBACK_START.plus(Duration.ofDays(15));
+        var quarter = LOOKBACK_START.plus(Duration.ofDays(7).plusHours(12));
+        when(githubClient.streamRepositoriesPushedBetween(eq("java"), eq(LOOKBACK_START), eq(NOW), anyInt(), any()))
+                .thenReturn(new CrawlProgress(1, false));
+        when(githubClient.streamRepositoriesPushedBetween(eq("java"), eq(LOOKBACK_START), eq(half), anyInt(), any()))
+                .thenReturn(new CrawlProgress(1, false));
+        when(githubClient.streamRepositoriesPushedBetween(eq("java"), eq(LOOKBACK_START), eq(quarter), anyInt(), any()))
+                .thenReturn(new CrawlProgress(8, true));
+        // act
+        sync.syncLanguage("java");
+        // assert: the page budget is spent, the rest of the lookback follows with the next sync
+        assertThat(repositoryIndex.getCheckpoint("java")).contains(quarter);
+        assertThat(repositoryIndex.isSynced("java")).isFalse();
+        verify(githubClient).streamRepositoriesPushedBetween(eq("java"), eq(LOOKBACK_START), eq(quarter), eq(8), any());
+    }
+}
@@ -0,0 +1,157 @@
+package com.redcare.github.popularity.index;
+
+import com.redcare.github.popularity.model.GithubRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepositoryIndexTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2024-03-01T10:15:30Z");
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldReplayLogAfterReopening() throws IOException {
+        // arrange
+        var index = new RepositoryIndex(directory);
+        index.upsert(List.of(repository(1, "java", 10), repository(2, "java", 20), repository(3, "go", 30)));
+        index.close();
+        // act
+        var reopened = new RepositoryIndex(directory);
+        // assert
+        assertThat(reopened.size()).isEqualTo(3);
+        assertThat(reopened.find("Java", null, 10))
+                .containsExactly(repository(2, "java", 20), repository(1, "java", 10));
+    }
+
+    @Test
+    void shouldKeepLatestRecordOfRepository() throws IOException {
+        // arrange
+        var index = new RepositoryIndex(directory);
+        index.upsert(List.of(repository(1, "java", 10)));
+        index.upsert(List.of(repository(1, "java", 15)));
+        index.close();
+        // act
+        var reopened = new RepositoryIndex(directory);
+        // assert
+        assertThat(reopened.find("java", null, 10)).containsExactly(repository(1, "java", 15));
+    }
+
+    @Test
+    void shouldReorderRepositoryWhoseStarsOrLanguageChanged() throws IOException {
+        // arrange
+        var index = new RepositoryIndex(directory);
+        index.upsert(List.of(repository(1, "java", 10), repository(2, "java", 20), repository(3, "java", 30)));
+        // act
+        index.upsert(List.of(repository(1, "java", 40), repository(3, "kotlin", 30)));
+        // assert
+        assertThat(index.find("java", null, 10)).containsExactly(repository(1, "java", 40), repository(2, "java", 20));
+        assertThat(index.find("kotlin", null, 10)).containsExactly(repository(3, "kotlin", 30));
+        assertThat(index.find("go", null, 10)).isEmpty();
+        index.close();
+    }
+
+    @Test
+    void shouldFilterByCreationDateAndLimit() throws IOException {
+        // arrange
+        var index = new RepositoryIndex(directory);
+        var old = new GithubRepository(4, "old", "https://github.com/old", Instant.parse("2020-01-01T00:00:00Z"),
+                CREATED_AT, 100, 0, "java");
+        index.upsert(List.of(old, repository(1, "java", 10), repository(2, "java", 20), repository(3, "java", 30)));
+        // act
+        var result = index.find("java", LocalDate.parse("2024-01-01"), 2);
+        // assert
+        assertThat(result).containsExactly(repository(3, "java", 30), repository(2, "java", 20));
+        index.close();
+    }
+
+    @Test
+    void shouldPersistCheckpoints() throws IOException {
+        // arrange
+        var index = new RepositoryIndex(directory);
+        var syncedUntil = Instant.parse("2024-05-01T00:00:00Z");
+        // act
+        index.setCheckpoint(" Java ", syncedUntil);
+        index.markSynced("java");
+        index.close();
+        var reopened = new RepositoryIndex(directory);
+        // assert
+        assertThat(reopened.getCheckpoint("java")).contains(syncedUntil);
+        assertThat(reopened.getCheckpoint("go")).isEmpty();
+        assertThat(reopened.isSynced("java")).isTrue();
+        assertThat(reopened.isSynced("go")).isFalse();
+    }
+
+    @Test
+    void shouldIgnorePartiallyWrittenRecord() throws IOException {
+        // arrange
+        var index = new RepositoryIndex(directory);
+        index.upsert(List.of(repository(1, "java", 10)));
+        index.close();
+        // simulate a crash in the middle of appending a record
+        Files.write(directory.resolve("repositories.log"), new byte[]{0, 0, 0, 0, 0, 0, 0, 2, 0, 0}, StandardOpenOption.APPEND);
+        // act
+        var reopened = new RepositoryIndex(directory);
+        reopened.upsert(List.of(repository(2, "java", 20)));
+        reopened.close();
+        var afterRecovery = new RepositoryIndex(directory);
+        // assert
+        assertThat(afterRecovery.find("java", null, 10))
+                .containsExactly(repository(2, "java", 20), repository(1, "java", 10));
+    }
+
+    @Test
+    void shouldReplayLogLargerThanReplayWindow() throws IOException {
+        // arrange: the window holds fewer than two records, so records straddle the window boundaries
+        var index = new RepositoryIndex(directory);
+        for (var id = 1; id <= 5; id++) {
+            index.upsert(List.of(repository(id, "java", id)));
+        }
+        index.close();
+        var windowSize = (int) (recordSize(directory.resolve("single"), repository(1, "java", 1)) * 3 / 2);
+        // act
+        var reopened = new RepositoryIndex(directory, windowSize);
+        // assert
+        assertThat(reopened.size()).isEqualTo(5);
+        assertThat(reopened.find("java", null, 1)).containsExactly(repository(5, "java", 5));
+    }
+
+    @Test
+    void shouldCompactLogWithManyOutdatedRecords() throws IOException {
+        // arrange
+        var index = new RepositoryIndex(directory);
+        for (var stars = 0; stars < 10; stars++) {
+            index.upsert(List.of(repository(1, "java", stars)));
+        }
+        index.close();
+        // act
+        var logSize = Files.size(directory.resolve("repositories.log"));
+        var reopened = new RepositoryIndex(directory);
+        // assert
+        assertThat(logSize).isLessThan(3L * recordSize(directory.resolve("single"), repository(1, "java", 9)));
+        assertThat(reopened.find("java", null, 10)).containsExactly(repository(1, "java", 9));
+    }
+
+    private static long recordSize(Path directory, GithubRepository repository) throws IOException {
+        var index = new RepositoryIndex(directory);
+        index.upsert(List.of(repository));
+        index.close();
+        return Files.size(directory.resolve("repositories.log"));
+    }
+
+    private static GithubRepository repository(long id, String language, int stars) {
+        return new GithubRepository(id, "repo-" + id, "https://github.com/repo-" + id, CREATED_AT, CREATED_AT,
+                stars, 0, language);
+    }
+}
@@ -0,0 +1,71 @@
+package com.redcare.github.popularity.loadtest;
+
+import com.redcare.github.popularity.simulator.GithubApiSimulator;
+import com.redcare.github.popularity.simulator.LatencyDistribution;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives {@code /api/v1/repositories} of the whole application against the GitHub simulator, without network access.
+ * Caching and coalescing are off, so every API call crawls its pages from the simulator.
+ * Tagged {@code load}, it only runs with the {@code load-test} profile.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class GithubPopularityLoadTest {
+
+    private static final List<String> LANGUAGES = List.of("java", "kotlin", "go", "rust");
+    private static final GithubApiSimulator SIMULATOR = GithubApiSimulator.builder()
+            .latency(LatencyDistribution.logNormal(Duration.ofMillis(20), Duration.ofMillis(80)))
+            .rateLimit(100_000, 100_000, Duration.ofMinutes(1))
+            .start();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void simulatorProperties(DynamicPropertyRegistry registry) {
+        registry.add("github.api.base-url", SIMULATOR::baseUrl);
+        registry.add("github.http.version", () -> "HTTP_1_1");
+        registry.add("github.access-tokens", () -> "load-1,load-2");
+        registry.add("github.cache.enabled", () -> "false");
+        registry.add("github.coalescing.enabled", () -> "false");
+    }
+
+    @AfterAll
+    static void stopSimulator() {
+        SIMULATOR.close();
+    }
+
+    @Test
+    void shouldServeTargetRateWithThreeGithubCallsPerRequest() {
+        // arrange
+        var harness = new LoadTestHarness(Duration.ofSeconds(10));
+        // warm up the JIT and connection pools at a low rate first
+        harness.run(this::searchUri, 5, Duration.ofSeconds(2), SIMULATOR::requestCount);
+        // act
+        var report = harness.run(this::searchUri, 20, Duration.ofSeconds(2), SIMULATOR::requestCount);
+        // assert: a failed assertion reports the whole run
+        var summary = report.summary();
+        assertThat(report.requests()).as(summary).isEqualTo(40);
+        assertThat(report.failures()).as(summary).isZero();
+        assertThat(report.githubCallsPerRequest()).as(summary).isEqualTo(3.0);
+        assertThat(report.p99()).as(summary).isLessThan(Duration.ofSeconds(5));
+    }
+
+    private URI searchUri(int request) {
+        return URI.create("http://localhost:" + port + "/api/v1/repositories?language="
+                + LANGUAGES.get(request % LANGUAGES.size()) + "&earliestCreationDate=2024-01-01&maxPages=3&pageSize=50");
+    }
+}
@@ -0,0 +1,88 @@
+package com.redcare.github.popularity.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+
+/**
+ * Drives an HTTP endpoint at a fixed request rate and reports throughput, latency percentiles and the GitHub calls
+ * spent per request. Requests are sent open loop on their schedule whether or not earlier ones have completed, so a
+ * slow server shows up in the latencies instead of silently lowering the request rate.
+ */
+public final class LoadTestHarness {
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+
+    public LoadTestHarness(Duration requestTimeout) {
+        this.httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * @param requestUri  Gives the URI of the i-th request, e.g. to rotate over search parameters
+     * @param targetRps   The requests sent per second
+     * @param duration    How long requests are sent for
+     * @param githubCalls Reads the number of GitHub calls made so far, e.g. from a {@code GithubApiSimulator}
+     * @return The report of all requests sent within the duration
+     */
+    public LoadTestReport run(IntFunction<URI> requestUri, double targetRps, Duration duration, IntSupplier githubCalls) {
+        var requestCount = (int) Math.max(1, Math.round(targetRps * duration.toNanos() / 1e9));
+        var intervalNanos = (long) (1e9 / targetRps);
+        var latencies = new long[requestCount];
+        var failures = new AtomicInteger();
+        var lastCompletion = new AtomicLong();
+        var githubCallsBefore = githubCalls.getAsInt();
+        var futures = new ArrayList<CompletableFuture<?>>(requestCount);
+        var start = System.nanoTime();
+        for (var i = 0; i < requestCount; i++) {
+            var scheduledAt = start + i * intervalNanos;
+            parkUntil(scheduledAt);
+            var request = HttpRequest.newBuilder(requestUri.apply(i)).timeout(requestTimeout).GET().build();
+            var index = i;
+            futures.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        var completedAt = System.nanoTime();
+                        latencies[index] = completedAt - scheduledAt;
+                        lastCompletion.accumulateAndGet(completedAt, Math::max);
+                        if (failure != null || response.statusCode() >= 400) {
+                            failures.incrementAndGet();
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .exceptionally(failure -> null)
+                .orTimeout(requestTimeout.toMillis() * 2, TimeUnit.MILLISECONDS)
+                .join();
+        var githubCallsDuringRun = githubCalls.getAsInt() - githubCallsBefore;
+        var elapsedSeconds = (lastCompletion.get() - start) / 1e9;
+        Arrays.sort(latencies);
+        return new LoadTestReport(requestCount, failures.get(), targetRps,
+                (requestCount - failures.get()) / elapsedSeconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+                Duration.ofNanos(latencies[latencies.length - 1]),
+                githubCallsDuringRun, (double) githubCallsDuringRun / requestCount);
+    }
+
+    private static Duration percentile(long[] sortedLatencies, double percentile) {
+        var index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return Duration.ofNanos(sortedLatencies[Math.max(0, index)]);
+    }
+
+    private static void parkUntil(long nanoTime) {
+        for (var remaining = nanoTime - System.nanoTime(); remaining > 0; remaining = nanoTime - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
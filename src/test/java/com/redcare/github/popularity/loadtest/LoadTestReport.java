@@ -0,0 +1,21 @@
+package com.redcare.github.popularity.loadtest;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Outcome of a {@link LoadTestHarness} run. Latencies are measured from the time a request was scheduled to be sent,
+ * so requests delayed by a saturated server count with their waiting time.
+ */
+public record LoadTestReport(int requests, int failures, double targetRps, double throughput,
+                             Duration p50, Duration p95, Duration p99, Duration max,
+                             int githubCalls, double githubCallsPerRequest) {
+
+    public String summary() {
+        return String.format(Locale.ROOT,
+                "%d requests (%d failed) at %.1f/s of %.1f/s target, latency p50 %dms p95 %dms p99 %dms max %dms, "
+                        + "%d GitHub calls, %.2f per request",
+                requests, failures, throughput, targetRps, p50.toMillis(), p95.toMillis(), p99.toMillis(),
+                max.toMillis(), githubCalls, githubCallsPerRequest);
+    }
+}
@@ -0,0 +1,65 @@
+package com.redcare.github.popularity.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactGithubRepositoryTest {
+
+    @Test
+    void shouldDeriveUrlFromName() {
+        // arrange
+        var repository = new GithubRepository(1, "owner/repo", "https://github.com/owner/repo",
+                Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2025-01-01T12:30:00Z"), 10, 2, "Java");
+        // act
+        var compact = CompactGithubRepository.of(repository);
+        // assert
+        assertThat(compact.url()).isNull();
+        assertThat(compact.urlDerived()).isTrue();
+        assertThat(compact.toRepository()).isEqualTo(repository);
+    }
+
+    @Test
+    void shouldKeepUrlsThatCannotBeDerived() {
+        // arrange
+        var enterprise = new GithubRepository(1, "owner/repo", "https://github.example.com/owner/repo",
+                null, null, 0, 0, null);
+        var withoutUrl = new GithubRepository(2, "owner/repo", null, null, null, 0, 0, null);
+        var withoutName = new GithubRepository(3, null, "https://github.com/owner/repo", null, null, 0, 0, null);
+        // act & assert
+        assertThat(CompactGithubRepository.of(enterprise).toRepository()).isEqualTo(enterprise);
+        assertThat(CompactGithubRepository.of(withoutUrl).toRepository()).isEqualTo(withoutUrl);
+        assertThat(CompactGithubRepository.of(withoutName).toRepository()).isEqualTo(withoutName);
+    }
+
+    @Test
+    void shouldTellMissingUrlFromEmptyUrl() {
+        // arrange
+        var withoutUrl = new GithubRepository(1, "owner/repo", null, null, null, 0, 0, null);
+        var emptyUrl = new GithubRepository(1, "owner/repo", "", null, null, 0, 0, null);
+        // act
+        var compactWithoutUrl = CompactGithubRepository.of(withoutUrl);
+        var compactEmptyUrl = CompactGithubRepository.of(emptyUrl);
+        // assert
+        assertThat(compactWithoutUrl).isNotEqualTo(compactEmptyUrl);
+        assertThat(compactWithoutUrl).isEqualTo(CompactGithubRepository.of(withoutUrl));
+        assertThat(compactEmptyUrl.toRepository()).isEqualTo(emptyUrl);
+    }
+
+    @Test
+    void shouldShareLanguageStrings() {
+        // arrange
+        var first = new GithubRepository(1, "a/b", null, null, null, 0, 0, new String("Kotlin"));
+        var second = new GithubRepository(2, "c/d", null, null, null, 0, 0, new String("Kotlin"));
+        // act
+        var firstCompact = CompactGithubRepository.of(first);
+        var secondCompact = CompactGithubRepository.of(second);
+        // assert
+        assertThat(firstCompact.languageId()).isEqualTo(secondCompact.languageId());
+        assertThat(firstCompact.toRepository().language()).isSameAs(secondCompact.toRepository().language());
+        assertThat(CompactGithubRepository.of(new GithubRepository(3, "e/f", null, null, null, 0, 0, null)).language())
+                .isNull();
+    }
+}
@@ -62,4 +62,60 @@ class GithubSearchParamsTest {
         assertThat(params.maxPages()).isEqualTo(1);
         assertThat(params.pageSize()).isEqualTo(100);
     }
+
+    @ParameterizedTest
+    @CsvSource({
+            "score, score",
+            "SCORE, score",
+            "' ', ",
+            ", "
+    })
+    void shouldNormalizeSort(String input, String expected) {
+        var params = new GithubSearchParams("2023-01-01", "java", 1, 100, input, null, null);
+        assertThat(params.sort()).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldRejectUnsupportedSort() {
+        assertThatThrownBy(() -> new GithubSearchParams("2023-01-01", "java", 1, 100, "stars", null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "0, 1",       // Below minimum, should cap to 1
+            "20, 20",     // Middle value
+            "3000, 3000", // Maximum value
+            "5000, 3000"  // Above maximum, should cap to 3000
+    })
+    void shouldHandleLimitCorrectly(int input, int expected) {
+        var params = new GithubSearchParams("2023-01-01", "java", 1, 100, "score", input, null);
+        assertThat(params.limit()).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "index, index",
+            "INDEX, index",
+            "github, ",
+            "' ', ",
+            ", "
+    })
+    void shouldNormalizeSource(String input, String expected) {
+        var params = new GithubSearchParams("2023-01-01", "java", 1, 100, null, null, null, null, input);
+        assertThat(params.source()).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldRejectUnsupportedSource() {
+        assertThatThrownBy(() -> new GithubSearchParams("2023-01-01", "java", 1, 100, null, null, null, null, "cache"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldBeUnsortedAndUnlimitedByDefault() {
+        var params = new GithubSearchParams("2023-01-01", "java", null, null);
+        assertThat(params.sort()).isNull();
+        assertThat(params.limit()).isNull();
+    }
 }
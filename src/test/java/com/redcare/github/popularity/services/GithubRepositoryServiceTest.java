@@ -1,23 +1,43 @@
 package com.redcare.github.popularity.services;
 
 import com.redcare.github.popularity.client.GithubClient;
+import com.redcare.github.popularity.client.GithubPageConsumer;
+import com.redcare.github.popularity.client.ReactiveGithubClient;
 import com.redcare.github.popularity.domain.PopularityScorer;
+import com.redcare.github.popularity.domain.PopularityScorerRegistry;
+import com.redcare.github.popularity.exception.UnknownScoringProfileException;
 import com.redcare.github.popularity.model.GithubRepository;
 import com.redcare.github.popularity.model.GithubSearchParams;
+import com.redcare.github.popularity.model.ScoredGithubRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import reactor.core.publisher.Flux;
+
+import java.time.Clock;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,15 +46,31 @@ class GithubRepositoryServiceTest {
     @Mock
     private GithubClient githubClient;
     @Mock
+    private ReactiveGithubClient reactiveGithubClient;
+    @Mock
+    private PopularityScorerRegistry popularityScorerRegistry;
+    @Mock
     private PopularityScorer popularityScorer;
     @Mock
     private GithubRepository githubRepository;
-    @Mock
-    private GithubSearchParams searchParams;
+    @Spy
+    private Clock clock = Clock.systemUTC();
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final GithubSearchParams searchParams = new GithubSearchParams("2023-01-01", "java", 1, 100);
 
     @InjectMocks
     private GithubRepositoryService service;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(popularityScorerRegistry.get(any())).thenReturn(popularityScorer);
+        // batch scoring falls back to the stubbed single score
+        lenient().doCallRealMethod().when(popularityScorer).calculateScores(any(), any(), any(), any(), any());
+        lenient().doCallRealMethod().when(popularityScorer).calculateScores(any(), any(), any(), any());
+    }
+
     @Test
     void shouldReturnEmptyList() {
         when(githubClient.getRepositories(any())).thenReturn(Collections.emptyList());
@@ -57,4 +93,181 @@ class GithubRepositoryServiceTest {
         assertThat(result.get(0).popularityScore()).isEqualTo(1.0);
         verify(popularityScorer).calculateScore(eq(100), eq(50), eq(5));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldScoreEachStreamedPage() {
+        // Arrange
+        when(githubRepository.pushedAt()).thenReturn(Instant.now().minus(5, ChronoUnit.DAYS));
+        when(githubRepository.starsCount()).thenReturn(100);
+        when(githubRepository.forksCount()).thenReturn(50);
+        when(popularityScorer.calculateScore(anyInt(), anyInt(), anyInt())).thenReturn(1.0);
+        streamPages(List.of(githubRepository), List.of(githubRepository, githubRepository));
+        List<Integer> pageSizes = new ArrayList<>();
+        // Act
+        service.streamRepositoriesWithPopularityScore(searchParams).forEachPage(page -> pageSizes.add(page.size()));
+        // Assert
+        assertThat(pageSizes).containsExactly(1, 2);
+    }
+
+    @Test
+    void shouldSelectTopScoredRepositoriesAcrossPages() {
+        // Arrange: the score equals the star count
+        when(popularityScorer.calculateScore(anyInt(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> ((Integer) invocation.getArgument(0)).doubleValue());
+        streamPages(List.of(repository(1, 5), repository(2, 9)), List.of(repository(3, 1), repository(4, 7)),
+                List.of(repository(5, 8)));
+        var sortedParams = new GithubSearchParams("2023-01-01", "java", 3, 2, "score", 3, null);
+        // Act
+        var result = service.getRepositoriesWithPopularityScore(sortedParams);
+        // Assert
+        assertThat(result).extracting(scored -> scored.repository().id()).containsExactly(2L, 5L, 4L);
+        assertThat(result).extracting(ScoredGithubRepository::popularityScore).containsExactly(9.0, 8.0, 7.0);
+    }
+
+    @Test
+    void shouldSortAllRepositoriesWithoutLimit() {
+        // Arrange
+        when(popularityScorer.calculateScore(anyInt(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> ((Integer) invocation.getArgument(0)).doubleValue());
+        streamPages(List.of(repository(1, 5), repository(2, 9)), List.of(repository(3, 1)));
+        var sortedParams = new GithubSearchParams("2023-01-01", "java", 2, 2, "score", null, null);
+        // Act
+        var result = service.getRepositoriesWithPopularityScore(sortedParams);
+        // Assert
+        assertThat(result).extracting(scored -> scored.repository().id()).containsExactly(2L, 1L, 3L);
+    }
+
+    @Test
+    void shouldKeepGithubOrderWhenOnlyLimited() {
+        // Arrange
+        when(popularityScorer.calculateScore(anyInt(), anyInt(), anyInt())).thenReturn(1.0);
+        streamPages(List.of(repository(1, 5), repository(2, 9)), List.of(repository(3, 1), repository(4, 7)));
+        var limitedParams = new GithubSearchParams("2023-01-01", "java", 2, 2, null, 3, null);
+        // Act
+        var result = service.getRepositoriesWithPopularityScore(limitedParams);
+        // Assert
+        assertThat(result).extracting(scored -> scored.repository().id()).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void shouldStopFetchingOnceUnsortedLimitIsReached() {
+        // Arrange
+        when(popularityScorer.calculateScore(anyInt(), anyInt(), anyInt())).thenReturn(1.0);
+        var handedOverPages = streamPages(List.of(repository(1, 5), repository(2, 9)),
+                List.of(repository(3, 1), repository(4, 7)), List.of(repository(5, 2), repository(6, 3)));
+        var limitedParams = new GithubSearchParams("2023-01-01", "java", 3, 2, null, 3, null);
+        // Act
+        var result = service.getRepositoriesWithPopularityScore(limitedParams);
+        // Assert
+        assertThat(result).extracting(scored -> scored.repository().id()).containsExactly(1L, 2L, 3L);
+        assertThat(handedOverPages).hasValue(2);
+    }
+
+    @Test
+    void shouldStopStreamingOnceLimitIsEmitted() {
+        // Arrange
+        when(popularityScorer.calculateScore(anyInt(), anyInt(), anyInt())).thenReturn(1.0);
+        var handedOverPages = streamPages(List.of(repository(1, 5), repository(2, 9)),
+                List.of(repository(3, 1), repository(4, 7)), List.of(repository(5, 2), repository(6, 3)));
+        var limitedParams = new GithubSearchParams("2023-01-01", "java", 3, 2, null, 2, null);
+        List<Long> ids = new ArrayList<>();
+        // Act
+        service.streamRepositoriesWithPopularityScore(limitedParams)
+                .forEachPage(page -> page.forEach(scored -> ids.add(scored.repository().id())));
+        // Assert
+        assertThat(ids).containsExactly(1L, 2L);
+        assertThat(handedOverPages).hasValue(1);
+    }
+
+    @Test
+    void shouldScoreWithRequestedProfile() {
+        // arrange
+        var profileScorer = mock(PopularityScorer.class);
+        doCallRealMethod().when(profileScorer).calculateScores(any(), any(), any(), any(), any());
+        doCallRealMethod().when(profileScorer).calculateScores(any(), any(), any(), any());
+        when(profileScorer.calculateScore(anyInt(), anyInt(), anyInt())).thenReturn(2.5);
+        when(popularityScorerRegistry.get("boosted")).thenReturn(profileScorer);
+        when(githubClient.getRepositories(any())).thenReturn(List.of(repository(1, 5)));
+        var profileParams = new GithubSearchParams("2023-01-01", "java", 1, 100, null, null, null, "boosted");
+        // act
+        var result = service.getRepositoriesWithPopularityScore(profileParams);
+        // assert
+        assertThat(result).extracting(ScoredGithubRepository::popularityScore).containsExactly(2.5);
+    }
+
+    @Test
+    void shouldRejectUnknownProfileBeforeFetching() {
+        // arrange
+        when(popularityScorerRegistry.get("unknown")).thenThrow(new UnknownScoringProfileException("Unknown scoring profile: unknown"));
+        var profileParams = new GithubSearchParams("2023-01-01", "java", 1, 100, null, null, null, "unknown");
+        // act & assert
+        assertThatThrownBy(() -> service.getRepositoriesWithPopularityScore(profileParams))
+                .isInstanceOf(UnknownScoringProfileException.class);
+        verifyNoInteractions(githubClient);
+    }
+
+    @Test
+    void shouldRejectUnknownProfileBeforeStreamStarts() {
+        // arrange
+        when(popularityScorerRegistry.get("unknown")).thenThrow(new UnknownScoringProfileException("Unknown scoring profile: unknown"));
+        var profileParams = new GithubSearchParams("2023-01-01", "java", 1, 100, null, null, null, "unknown");
+        // act & assert: preparing the stream fails, not running it
+        assertThatThrownBy(() -> service.streamRepositoriesWithPopularityScore(profileParams))
+                .isInstanceOf(UnknownScoringProfileException.class);
+        verifyNoInteractions(githubClient);
+    }
+
+    @Test
+    void shouldSelectTopScoredRepositoriesReactively() {
+        // arrange: the score equals the star count
+        when(popularityScorer.calculateScore(anyInt(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> ((Integer) invocation.getArgument(0)).doubleValue());
+        when(reactiveGithubClient.getRepositories(any())).thenReturn(Flux.just(repository(1, 5), repository(2, 9),
+                repository(3, 1), repository(4, 7), repository(5, 8)));
+        var sortedParams = new GithubSearchParams("2023-01-01", "java", 3, 2, "score", 3, null);
+        // act
+        var result = service.getRepositoriesWithPopularityScoreReactive(sortedParams).collectList().block();
+        // assert
+        assertThat(result).extracting(scored -> scored.repository().id()).containsExactly(2L, 5L, 4L);
+    }
+
+    @Test
+    void shouldStopFetchingReactivelyOnceLimitIsReached() {
+        // arrange
+        when(popularityScorer.calculateScore(anyInt(), anyInt(), anyInt())).thenReturn(1.0);
+        var emitted = new ArrayList<Long>();
+        when(reactiveGithubClient.getRepositories(any())).thenReturn(Flux.range(1, 100)
+                .map(id -> repository(id, 1))
+                .doOnNext(repository -> emitted.add(repository.id())));
+        var limitedParams = new GithubSearchParams("2023-01-01", "java", 10, 2, null, 3, null);
+        // act
+        var result = service.getRepositoriesWithPopularityScoreReactive(limitedParams).collectList().block();
+        // assert
+        assertThat(result).extracting(scored -> scored.repository().id()).containsExactly(1L, 2L, 3L);
+        assertThat(emitted).hasSizeLessThan(10);
+    }
+
+    /**
+     * @return The number of pages handed over before the consumer wanted no further pages
+     */
+    @SafeVarargs
+    private AtomicInteger streamPages(List<GithubRepository>... pages) {
+        var handedOverPages = new AtomicInteger();
+        doAnswer(invocation -> {
+            GithubPageConsumer pageConsumer = invocation.getArgument(1);
+            for (var page : pages) {
+                handedOverPages.incrementAndGet();
+                if (!pageConsumer.accept(page)) {
+                    break;
+                }
+            }
+            return null;
+        }).when(githubClient).streamRepositories(any(), any());
+        return handedOverPages;
+    }
+
+    private static GithubRepository repository(long id, int stars) {
+        return new GithubRepository(id, "owner/repo-" + id, "https://github.com/owner/repo-" + id,
+                Instant.now(), Instant.now(), stars, 0, "Java");
+    }
+}
@@ -0,0 +1,109 @@
+package com.redcare.github.popularity.services;
+
+import com.redcare.github.popularity.exception.ExpiredCursorException;
+import com.redcare.github.popularity.exception.InvalidCursorException;
+import com.redcare.github.popularity.model.GithubRepository;
+import com.redcare.github.popularity.model.GithubSearchParams;
+import com.redcare.github.popularity.model.RepositoryPage;
+import com.redcare.github.popularity.model.ScoredGithubRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RepositorySnapshotsTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Mock
+    private GithubRepositoryService repositoryService;
+    @Mock
+    private Clock clock;
+
+    private final GithubSearchParams searchParams = new GithubSearchParams("2023-01-01", "java", 1, 100);
+    private final List<ScoredGithubRepository> repositories = LongStream.rangeClosed(1, 60)
+            .mapToObj(RepositorySnapshotsTest::scoredRepository)
+            .toList();
+    private RepositorySnapshots snapshots;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(clock.millis()).thenReturn(NOW.toEpochMilli());
+        lenient().when(repositoryService.getRepositoriesWithPopularityScore(any())).thenReturn(repositories);
+        snapshots = new RepositorySnapshots(repositoryService, clock, Duration.ofMinutes(5), 1000, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldPageThroughSnapshotWithoutCrawlingAgain() {
+        // act
+        var pages = new ArrayList<RepositoryPage>();
+        pages.add(snapshots.firstPage(searchParams, null));
+        while (pages.get(pages.size() - 1).nextCursor() != null) {
+            pages.add(snapshots.nextPage(pages.get(pages.size() - 1).nextCursor(), null));
+        }
+        // assert: 60 repositories in pages of the default size 25
+        assertThat(pages).extracting(page -> page.repositories().size()).containsExactly(25, 25, 10);
+        assertThat(pages.stream().flatMap(page -> page.repositories().stream()).toList()).isEqualTo(repositories);
+        assertThat(pages).allSatisfy(page -> {
+            assertThat(page.total()).isEqualTo(60);
+            assertThat(page.expiresAt()).isEqualTo(NOW.plus(Duration.ofMinutes(5)));
+        });
+        verify(repositoryService, times(1)).getRepositoriesWithPopularityScore(any());
+    }
+
+    @Test
+    void shouldKeepOrChangePageSizeOfCursor() {
+        // arrange
+        var first = snapshots.firstPage(searchParams, 10);
+        // act
+        var keptSize = snapshots.nextPage(first.nextCursor(), null);
+        var changedSize = snapshots.nextPage(keptSize.nextCursor(), 500);
+        // assert: the size is capped at 100
+        assertThat(keptSize.repositories()).isEqualTo(repositories.subList(10, 20));
+        assertThat(changedSize.repositories()).isEqualTo(repositories.subList(20, 60));
+        assertThat(changedSize.nextCursor()).isNull();
+    }
+
+    @Test
+    void shouldRejectCursorOfExpiredSnapshot() {
+        // arrange
+        var first = snapshots.firstPage(searchParams, null);
+        // act
+        when(clock.millis()).thenReturn(NOW.plus(Duration.ofMinutes(6)).toEpochMilli());
+        // assert
+        assertThatThrownBy(() -> snapshots.nextPage(first.nextCursor(), null))
+                .isInstanceOf(ExpiredCursorException.class);
+    }
+
+    @Test
+    void shouldRejectForgedCursor() {
+        assertThatThrownBy(() -> snapshots.nextPage("not a cursor", null))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> snapshots.nextPage("c25hcHNob3Q6LTE6MjU", null))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    private static ScoredGithubRepository scoredRepository(long id) {
+        var repository = new GithubRepository(id, "owner/repo-" + id, "https://github.com/owner/repo-" + id,
+                Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2025-01-01T00:00:00Z"), 10, 2, "Java");
+        return new ScoredGithubRepository(repository, 100 - id);
+    }
+}
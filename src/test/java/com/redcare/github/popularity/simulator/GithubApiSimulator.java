@@ -0,0 +1,398 @@
+package com.redcare.github.popularity.simulator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process HTTP simulator of GitHub's {@code /search/repositories} endpoint for tests and load tests.
+ * Search results are synthetic but deterministic: the same seed and query always yield the same repositories, and the
+ * total count follows the {@code created} range of the query, so partitioned crawls split like they do against GitHub.
+ * Like GitHub, it only serves the first 1000 results of a query, tracks a search rate budget per access token in the
+ * {@code X-RateLimit-*} headers, answers an exhausted budget with 403 and conditional requests with 304.
+ * On top, responses can be delayed by a {@link LatencyDistribution}, and failures injected at random or per page.
+ */
+public final class GithubApiSimulator implements AutoCloseable {
+    private static final int MAX_SEARCH_RESULTS = 1000;
+    private static final LocalDate GITHUB_LAUNCH_DATE = LocalDate.of(2008, 1, 1);
+    private static final List<String> LANGUAGES = List.of("Java", "Python", "JavaScript", "Go", "Rust", "Kotlin");
+
+    private final Builder config;
+    // repositories are pushed before the day the simulator started, so they stay the same all day
+    private final Instant today = LocalDate.now(ZoneOffset.UTC).atStartOfDay(ZoneOffset.UTC).toInstant();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    // latencies and random failures are drawn from one seeded sequence in the order requests arrive
+    private final SplittableRandom random;
+    private final Map<String, RateLimitWindow> rateLimitWindows = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> pageFailures = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> slowPages = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> responseCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    private GithubApiSimulator(Builder config) {
+        this.config = config;
+        this.random = new SplittableRandom(config.seed);
+        config.pageFailures.forEach((page, failure) -> pageFailures.put(page, new AtomicInteger(failure[1])));
+        config.slowPages.forEach((page, slowness) -> slowPages.put(page, new AtomicInteger((int) slowness[1])));
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/search/repositories", this::handle);
+        server.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * @return The number of search requests received
+     */
+    public int requestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return The number of responses sent with the given status
+     */
+    public int responseCount(int status) {
+        var count = responseCounts.get(status);
+        return count == null ? 0 : count.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try (exchange) {
+            var params = queryParams(exchange.getRequestURI().getRawQuery());
+            var page = Integer.parseInt(params.getOrDefault("page", "1"));
+            var pageSize = Integer.parseInt(params.getOrDefault("per_page", "30"));
+            long latencyMillis;
+            double failureSample;
+            synchronized (random) {
+                latencyMillis = config.latency.sampleMillis(random);
+                failureSample = random.nextDouble();
+            }
+            var slowPage = config.slowPages.get(page);
+            if (slowPage != null && slowPages.get(page).getAndDecrement() > 0) {
+                latencyMillis = slowPage[0];
+            }
+            sleep(latencyMillis);
+            var window = rateLimitWindow(exchange.getRequestHeaders().getFirst("Authorization"));
+            // scripted and random failures come first, like an outage in front of the search backend
+            var scriptedFailure = config.pageFailures.get(page);
+            if (scriptedFailure != null && pageFailures.get(page).getAndDecrement() > 0) {
+                if (scriptedFailure[0] == 403 || scriptedFailure[0] == 429) {
+                    exchange.getResponseHeaders().add("Retry-After", String.valueOf(config.retryAfter.toSeconds()));
+                }
+                respond(exchange, scriptedFailure[0], window, "{\"message\":\"Simulated failure\"}");
+                return;
+            }
+            if (failureSample < config.unavailableRate) {
+                respond(exchange, 503, window, "{\"message\":\"Service Unavailable\"}");
+                return;
+            }
+            if (failureSample < config.unavailableRate + config.secondaryRateLimitRate) {
+                exchange.getResponseHeaders().add("Retry-After", String.valueOf(config.retryAfter.toSeconds()));
+                respond(exchange, 403, window, "{\"message\":\"You have exceeded a secondary rate limit.\"}");
+                return;
+            }
+            if (!window.tryTake()) {
+                respond(exchange, 403, window, "{\"message\":\"API rate limit exceeded\"}");
+                return;
+            }
+            if ((long) (page - 1) * pageSize >= MAX_SEARCH_RESULTS || pageSize > 100) {
+                respond(exchange, 422, window, "{\"message\":\"Only the first 1000 search results are available\"}");
+                return;
+            }
+            var body = searchPage(params.getOrDefault("q", ""), page, pageSize);
+            var etag = "\"" + Integer.toHexString(body.hashCode()) + "\"";
+            exchange.getResponseHeaders().add("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                respond(exchange, 304, window, null);
+                return;
+            }
+            respond(exchange, 200, window, body);
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, RateLimitWindow window, String body) throws IOException {
+        responseCounts.computeIfAbsent(status, key -> new AtomicInteger()).incrementAndGet();
+        window.addHeaders(exchange);
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private RateLimitWindow rateLimitWindow(String authorization) {
+        var token = authorization == null ? "anonymous" : authorization;
+        var limit = authorization == null ? config.rateLimitWithoutToken : config.rateLimitWithToken;
+        return rateLimitWindows.computeIfAbsent(token, key -> new RateLimitWindow(limit, config.rateLimitWindow));
+    }
+
+    /**
+     * Builds the JSON of a search page. The repositories of a query are numbered, repository i of a query always has
+     * the same fields, created within the {@code created} range and in the {@code language} of the query.
+     */
+    private String searchPage(String query, int page, int pageSize) {
+        var search = Search.parse(query);
+        var totalCount = search.totalCount(config.repositoriesPerDay);
+        var json = new StringBuilder(pageSize * 300).append("{\"total_count\":").append(totalCount)
+                .append(",\"incomplete_results\":false,\"items\":[");
+        var first = (page - 1) * pageSize;
+        var last = Math.min(first + pageSize, Math.min(totalCount, MAX_SEARCH_RESULTS));
+        for (var i = first; i < last; i++) {
+            if (i > first) {
+                json.append(',');
+            }
+            appendRepository(json, search, i);
+        }
+        return json.append("]}").toString();
+    }
+
+    private void appendRepository(StringBuilder json, Search search, int index) {
+        var repositoryRandom = new SplittableRandom(config.seed * 31 + search.hash() * 1_000_003L + index);
+        var id = 1 + repositoryRandom.nextLong(1_000_000_000L);
+        var createdAt = search.from().atStartOfDay(ZoneOffset.UTC).toInstant()
+                .plusSeconds(repositoryRandom.nextLong(search.days() * 86_400L));
+        var pushedAt = createdAt.plusSeconds(repositoryRandom.nextLong(Math.max(1, today.getEpochSecond() - createdAt.getEpochSecond())));
+        // star counts of real repositories are heavy tailed, few have thousands while most have a handful
+        var stars = (int) Math.min(500_000, 1 / Math.pow(1 - repositoryRandom.nextDouble(), 1.5) - 1);
+        var forks = (int) (stars * repositoryRandom.nextDouble() * 0.3);
+        var language = search.language() != null ? search.language() : LANGUAGES.get(repositoryRandom.nextInt(LANGUAGES.size()));
+        var name = "sim-owner-" + (id % 997) + "/repo-" + id;
+        json.append("{\"id\":").append(id)
+                .append(",\"full_name\":\"").append(name)
+                .append("\",\"html_url\":\"https://github.com/").append(name)
+                .append("\",\"created_at\":\"").append(createdAt)
+                .append("\",\"pushed_at\":\"").append(pushedAt)
+                .append("\",\"stargazers_count\":").append(stars)
+                .append(",\"forks_count\":").append(forks)
+                .append(",\"language\":\"").append(language).append("\"}");
+    }
+
+    private static Map<String, String> queryParams(String rawQuery) {
+        var params = new HashMap<String, String>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (var param : rawQuery.split("&")) {
+            var separator = param.indexOf('=');
+            if (separator > 0) {
+                params.put(URLDecoder.decode(param.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(param.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The qualifiers of a search query the simulated results depend on.
+     */
+    private record Search(int hash, LocalDate from, LocalDate to, String language) {
+
+        static Search parse(String query) {
+            var from = GITHUB_LAUNCH_DATE;
+            var to = LocalDate.now(ZoneOffset.UTC);
+            String language = null;
+            for (var qualifier : query.trim().split("\\s+")) {
+                if (qualifier.startsWith("language:")) {
+                    language = qualifier.substring("language:".length());
+                } else if (qualifier.startsWith("created:>=")) {
+                    from = LocalDate.parse(qualifier.substring("created:>=".length()));
+                } else if (qualifier.startsWith("created:") && qualifier.contains("..")) {
+                    var range = qualifier.substring("created:".length()).split("\\.\\.");
+                    from = LocalDate.parse(range[0]);
+                    to = LocalDate.parse(range[1]);
+                }
+            }
+            return new Search(query.hashCode(), from.isBefore(GITHUB_LAUNCH_DATE) ? GITHUB_LAUNCH_DATE : from, to, language);
+        }
+
+        long days() {
+            return Math.max(1, ChronoUnit.DAYS.between(from, to) + 1);
+        }
+
+        int totalCount(double repositoriesPerDay) {
+            return (int) Math.min(Integer.MAX_VALUE, Math.round(days() * repositoriesPerDay));
+        }
+    }
+
+    /**
+     * The search budget of one access token, refilled when its window has passed.
+     */
+    private static final class RateLimitWindow {
+        private final int limit;
+        private final Duration length;
+        private int remaining;
+        private Instant resetAt;
+
+        RateLimitWindow(int limit, Duration length) {
+            this.limit = limit;
+            this.length = length;
+            this.remaining = limit;
+            this.resetAt = Instant.now().plus(length);
+        }
+
+        synchronized boolean tryTake() {
+            refill();
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            return true;
+        }
+
+        synchronized void addHeaders(HttpExchange exchange) {
+            refill();
+            exchange.getResponseHeaders().add("X-RateLimit-Limit", String.valueOf(limit));
+            exchange.getResponseHeaders().add("X-RateLimit-Remaining", String.valueOf(remaining));
+            exchange.getResponseHeaders().add("X-RateLimit-Reset", String.valueOf(resetAt.getEpochSecond()));
+            exchange.getResponseHeaders().add("X-RateLimit-Resource", "search");
+        }
+
+        private void refill() {
+            var now = Instant.now();
+            if (!now.isBefore(resetAt)) {
+                remaining = limit;
+                resetAt = now.plus(length);
+            }
+        }
+    }
+
+    public static final class Builder {
+        private long seed = 42;
+        private double repositoriesPerDay = 20;
+        private LatencyDistribution latency = LatencyDistribution.NONE;
+        private int rateLimitWithToken = 30;
+        private int rateLimitWithoutToken = 10;
+        private Duration rateLimitWindow = Duration.ofMinutes(1);
+        private double unavailableRate;
+        private double secondaryRateLimitRate;
+        private Duration retryAfter = Duration.ofSeconds(1);
+        // page -> status, number of failures
+        private final Map<Integer, int[]> pageFailures = new HashMap<>();
+        // page -> latency in milliseconds, number of slow responses
+        private final Map<Integer, long[]> slowPages = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Seeds the synthetic repositories, latencies and random failures.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Sets how many repositories a query finds per day of its {@code created} range.
+         */
+        public Builder repositoriesPerDay(double repositoriesPerDay) {
+            this.repositoriesPerDay = repositoriesPerDay;
+            return this;
+        }
+
+        public Builder latency(LatencyDistribution latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * Sets the search budget per window with and without an access token, GitHub's is 30 and 10 per minute.
+         */
+        public Builder rateLimit(int withToken, int withoutToken, Duration window) {
+            this.rateLimitWithToken = withToken;
+            this.rateLimitWithoutToken = withoutToken;
+            this.rateLimitWindow = window;
+            return this;
+        }
+
+        /**
+         * Answers the given share of requests with 503.
+         */
+        public Builder unavailableRate(double unavailableRate) {
+            this.unavailableRate = unavailableRate;
+            return this;
+        }
+
+        /**
+         * Answers the given share of requests with a secondary rate limit, a 403 with a {@code Retry-After} header.
+         */
+        public Builder secondaryRateLimitRate(double secondaryRateLimitRate, Duration retryAfter) {
+            this.secondaryRateLimitRate = secondaryRateLimitRate;
+            this.retryAfter = retryAfter;
+            return this;
+        }
+
+        /**
+         * Answers the first requests of a page number with the given status, whatever the query. A 403 or 429 is sent
+         * as a secondary rate limit with the {@code Retry-After} header of {@link #secondaryRateLimitRate}.
+         */
+        public Builder failPage(int page, int status, int times) {
+            pageFailures.put(page, new int[]{status, times});
+            return this;
+        }
+
+        /**
+         * Answers the first requests of a page number after the given latency instead, whatever the query.
+         */
+        public Builder slowPage(int page, Duration latency, int times) {
+            slowPages.put(page, new long[]{latency.toMillis(), times});
+            return this;
+        }
+
+        public GithubApiSimulator start() {
+            return new GithubApiSimulator(this);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.redcare.github.popularity.simulator;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+/**
+ * Latency the {@link GithubApiSimulator} adds before answering a request.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    LatencyDistribution NONE = random -> 0;
+
+    /**
+     * @return The latency of one response in milliseconds
+     */
+    long sampleMillis(SplittableRandom random);
+
+    static LatencyDistribution fixed(Duration latency) {
+        var millis = latency.toMillis();
+        return random -> millis;
+    }
+
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        var minMillis = min.toMillis();
+        var maxMillis = max.toMillis();
+        return random -> minMillis + random.nextLong(maxMillis - minMillis + 1);
+    }
+
+    /**
+     * A long-tailed distribution like the one of real API latencies, given by its median and 99th percentile.
+     */
+    static LatencyDistribution logNormal(Duration median, Duration p99) {
+        var mu = Math.log(median.toMillis());
+        // the 99th percentile of a standard normal distribution is 2.326 standard deviations above the mean
+        var sigma = (Math.log(p99.toMillis()) - mu) / 2.326;
+        return random -> Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+    }
+
+    /**
+     * Answers the given share of requests after the slow latency instead, e.g. to stall single pages of a crawl.
+     */
+    default LatencyDistribution withSlowRequests(double probability, Duration latency) {
+        var slowMillis = latency.toMillis();
+        return random -> random.nextDouble() < probability ? slowMillis : sampleMillis(random);
+    }
+}
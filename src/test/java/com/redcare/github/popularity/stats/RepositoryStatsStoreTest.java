@@ -0,0 +1,124 @@
+package com.redcare.github.popularity.stats;
+
+import com.redcare.github.popularity.domain.ScoringDays;
+import com.redcare.github.popularity.domain.SimplePopularityScorer;
+import com.redcare.github.popularity.model.GithubRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepositoryStatsStoreTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final RepositoryStatsStore store = new RepositoryStatsStore(100_000);
+
+    @Test
+    void shouldReplaceStatsOfKnownRepositories() {
+        // arrange
+        store.update(List.of(repository(1, 10, "Java"), repository(2, 20, "Go")));
+        // act
+        store.update(List.of(repository(1, 15, "Java")));
+        var snapshot = store.snapshot();
+        // assert
+        assertThat(snapshot.size()).isEqualTo(2);
+        assertThat(snapshot.starsCount(snapshot.indexOf(1))).isEqualTo(15);
+        assertThat(snapshot.starsCount(snapshot.indexOf(2))).isEqualTo(20);
+        assertThat(snapshot.language(snapshot.indexOf(2))).isEqualTo("Go");
+        assertThat(snapshot.indexOf(3)).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldKeepSnapshotsUnaffectedByLaterUpdates() {
+        // arrange
+        store.update(List.of(repository(1, 10, "Java")));
+        var snapshot = store.snapshot();
+        // act
+        store.update(List.of(repository(1, 99, "Java"), repository(2, 5, "Java")));
+        // assert
+        assertThat(snapshot.size()).isEqualTo(1);
+        assertThat(snapshot.starsCount(snapshot.indexOf(1))).isEqualTo(10);
+        assertThat(store.snapshot().starsCount(store.snapshot().indexOf(1))).isEqualTo(99);
+    }
+
+    @Test
+    void shouldKeepPositionsAndSnapshotOfUnchangedStats() {
+        // arrange
+        store.update(List.of(repository(1, 10, "Java"), repository(2, 20, "Go")));
+        var first = store.snapshot();
+        // act
+        store.update(List.of(repository(2, 20, "Go")));
+        var unchanged = store.snapshot();
+        store.update(List.of(repository(3, 30, "Java"), repository(2, 25, "Go")));
+        var changed = store.snapshot();
+        // assert
+        assertThat(unchanged).isSameAs(first);
+        assertThat(changed.indexOf(1)).isEqualTo(first.indexOf(1));
+        assertThat(changed.indexOf(2)).isEqualTo(first.indexOf(2));
+        assertThat(changed.starsCount(changed.indexOf(2))).isEqualTo(25);
+    }
+
+    @Test
+    void shouldRemoveRepositoriesSeenLongestAgoBeyondMaximum() {
+        // arrange: ten repositories seen one after another, the first is seen again
+        var boundedStore = new RepositoryStatsStore(10);
+        LongStream.rangeClosed(1, 10).forEach(id -> boundedStore.update(List.of(repository(id, 10, "Java"))));
+        boundedStore.update(List.of(repository(1, 10, "Java")));
+        // act
+        boundedStore.update(List.of(repository(11, 10, "Java")));
+        var snapshot = boundedStore.snapshot();
+        // assert: a tenth of the maximum is free again
+        assertThat(snapshot.size()).isEqualTo(9);
+        assertThat(snapshot.indexOf(2)).isEqualTo(-1);
+        assertThat(snapshot.indexOf(3)).isEqualTo(-1);
+        assertThat(snapshot.indexOf(1)).isNotNegative();
+        assertThat(snapshot.indexOf(11)).isNotNegative();
+    }
+
+    @Test
+    void shouldGrowAndApplyConcurrentUpdates() throws InterruptedException {
+        // arrange: four writers with disjoint id ranges, far beyond the initial capacity
+        var executor = Executors.newFixedThreadPool(4);
+        // act
+        for (var writer = 0; writer < 4; writer++) {
+            var firstId = writer * 10_000L;
+            executor.execute(() -> LongStream.range(firstId, firstId + 10_000)
+                    .forEach(id -> store.update(List.of(repository(id, (int) id, "Java")))));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        // assert
+        var snapshot = store.snapshot();
+        assertThat(snapshot.size()).isEqualTo(40_000);
+        for (var id = 0L; id < 40_000; id++) {
+            assertThat(snapshot.starsCount(snapshot.indexOf(id))).isEqualTo((int) id);
+        }
+    }
+
+    @Test
+    void shouldScoreSnapshotLikeSingleRepositories() {
+        // arrange
+        var scorer = new SimplePopularityScorer();
+        store.update(List.of(repository(1, 500, "Java"), repository(2, 9000, "Go"),
+                new GithubRepository(3, "owner/repo-3", null, NOW, null, 50, 5, null)));
+        var snapshot = store.snapshot();
+        // act
+        var scores = snapshot.score(scorer, ScoringDays.epochDay(NOW));
+        // assert: repositories were pushed 30 days ago, an unknown push gets the full penalty
+        assertThat(scores[snapshot.indexOf(1)]).isEqualTo(scorer.calculateScore(500, 5, 30));
+        assertThat(scores[snapshot.indexOf(2)]).isEqualTo(scorer.calculateScore(9000, 5, 30));
+        assertThat(scores[snapshot.indexOf(3)]).isEqualTo(scorer.calculateScore(50, 5, 365));
+    }
+
+    private static GithubRepository repository(long id, int stars, String language) {
+        return new GithubRepository(id, "owner/repo-" + id, "https://github.com/owner/repo-" + id,
+                NOW.minus(400, ChronoUnit.DAYS), NOW.minus(30, ChronoUnit.DAYS), stars, 5, language);
+    }
+}